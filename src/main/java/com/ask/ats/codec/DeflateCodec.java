@@ -0,0 +1,66 @@
+package com.ask.ats.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Zlib deflate codec, the historical format of job diva events. Reuses the {@link Deflater}s through a small pool
+ * bounded by the number of cores rather than one per thread, since with virtual threads every task is a new thread.
+ * A deflater is reset when it returns to the pool and ended when the pool is full, so its native memory is freed.
+ */
+public class DeflateCodec implements EventCodec {
+
+    /**
+     * The constant CONTENT_ENCODING.
+     */
+    public static final String CONTENT_ENCODING = "deflate";
+
+    private static final int STREAM_BUFFER_SIZE = 8192;
+
+    private static final BlockingQueue<Deflater> DEFLATERS =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    @Override
+    public String contentEncoding() {
+        return CONTENT_ENCODING;
+    }
+
+    @Override
+    public OutputStream encode(OutputStream out) {
+        Deflater pooled = DEFLATERS.poll();
+        Deflater deflater = pooled != null ? pooled : new Deflater();
+        return new DeflaterOutputStream(out, deflater, STREAM_BUFFER_SIZE) {
+            private boolean released;
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    if (!released) {
+                        released = true;
+                        release(deflater);
+                    }
+                }
+            }
+        };
+    }
+
+    private static void release(Deflater deflater) {
+        deflater.reset();
+        if (!DEFLATERS.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public InputStream decode(InputStream in) {
+        return new InflaterInputStream(in);
+    }
+}
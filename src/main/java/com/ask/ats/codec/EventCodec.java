@@ -0,0 +1,43 @@
+package com.ask.ats.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Compression codec applied to sns event bodies before they are base64 encoded. The codec is advertised to consumers
+ * through the {@link #CONTENT_ENCODING_ATTRIBUTE} message attribute.
+ */
+public interface EventCodec {
+
+    /**
+     * Message attribute carrying the {@link #contentEncoding()} of the event body.
+     */
+    String CONTENT_ENCODING_ATTRIBUTE = "contentEncoding";
+
+    /**
+     * Content encoding advertised to consumers, e.g. {@code deflate} or {@code zstd}.
+     *
+     * @return the content encoding
+     */
+    String contentEncoding();
+
+    /**
+     * Wraps the output stream so that everything written to it is compressed. Closing the returned stream finishes
+     * the compressed frame and closes the target.
+     *
+     * @param out the out
+     * @return the compressing output stream
+     * @throws IOException the io exception
+     */
+    OutputStream encode(OutputStream out) throws IOException;
+
+    /**
+     * Wraps the input stream so that reading from it yields the decompressed body.
+     *
+     * @param in the in
+     * @return the decompressing input stream
+     * @throws IOException the io exception
+     */
+    InputStream decode(InputStream in) throws IOException;
+}
@@ -0,0 +1,76 @@
+package com.ask.ats.codec;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry of the event codecs available to publishers, keyed by the names used in {@code aws.sns.codec}:
+ * {@code deflate}, {@code gzip}, {@code zstd} and {@code zstd-dict}. The dictionary codec is only available when a
+ * trained dictionary is configured.
+ */
+@Slf4j
+@Component
+public class EventCodecRegistry {
+
+    /**
+     * Name of the zstd codec primed with the configured dictionary.
+     */
+    public static final String ZSTD_DICT = "zstd-dict";
+
+    private final Map<String, EventCodec> codecs = new HashMap<>();
+
+    /**
+     * Instantiates a new Event codec registry.
+     *
+     * @param resourceLoader     the resource loader
+     * @param zstdLevel          the zstd level
+     * @param dictionaryName     the dictionary name
+     * @param dictionaryLocation the dictionary location
+     */
+    public EventCodecRegistry(ResourceLoader resourceLoader,
+                              @Value("${aws.sns.codec.zstdLevel}") int zstdLevel,
+                              @Value("${aws.sns.codec.dictionary.name}") String dictionaryName,
+                              @Value("${aws.sns.codec.dictionary.location}") String dictionaryLocation) {
+        codecs.put(DeflateCodec.CONTENT_ENCODING, new DeflateCodec());
+        codecs.put(GzipCodec.CONTENT_ENCODING, new GzipCodec());
+        codecs.put(ZstdCodec.CONTENT_ENCODING, new ZstdCodec(zstdLevel));
+        if (dictionaryLocation != null && !dictionaryLocation.isBlank()) {
+            byte[] dictionary = loadDictionary(resourceLoader.getResource(dictionaryLocation));
+            codecs.put(ZSTD_DICT, new ZstdCodec(zstdLevel, dictionaryName, dictionary));
+            log.info("Loaded zstd dictionary {} of {} bytes from {}", dictionaryName, dictionary.length,
+                    dictionaryLocation);
+        }
+    }
+
+    /**
+     * Returns the codec registered under the name.
+     *
+     * @param name the name
+     * @return the codec
+     * @throws IllegalArgumentException when no codec is registered under the name
+     */
+    public EventCodec codec(String name) {
+        EventCodec codec = codecs.get(name);
+        if (codec == null) {
+            throw new IllegalArgumentException("Unknown or unconfigured sns event codec " + name);
+        }
+        return codec;
+    }
+
+    private static byte[] loadDictionary(Resource resource) {
+        try (InputStream in = resource.getInputStream()) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading zstd dictionary " + resource.getDescription(), e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.ask.ats.codec;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip codec, for consumers that only speak gzip.
+ */
+public class GzipCodec implements EventCodec {
+
+    /**
+     * The constant CONTENT_ENCODING.
+     */
+    public static final String CONTENT_ENCODING = "gzip";
+
+    private static final int STREAM_BUFFER_SIZE = 8192;
+
+    @Override
+    public String contentEncoding() {
+        return CONTENT_ENCODING;
+    }
+
+    @Override
+    public OutputStream encode(OutputStream out) throws IOException {
+        return new GZIPOutputStream(out, STREAM_BUFFER_SIZE);
+    }
+
+    @Override
+    public InputStream decode(InputStream in) throws IOException {
+        return new GZIPInputStream(in, STREAM_BUFFER_SIZE);
+    }
+}
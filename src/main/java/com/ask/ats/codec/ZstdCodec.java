@@ -0,0 +1,73 @@
+package com.ask.ats.codec;
+
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Zstandard codec, optionally primed with a dictionary trained offline from sample events. Dictionary frames carry
+ * the dictionary id in their header, consumers pick the matching dictionary by the {@code contentEncoding} value.
+ */
+public class ZstdCodec implements EventCodec {
+
+    /**
+     * The constant CONTENT_ENCODING.
+     */
+    public static final String CONTENT_ENCODING = "zstd";
+
+    private final int level;
+    private final String dictionaryName;
+    private final ZstdDictCompress dictCompress;
+    private final ZstdDictDecompress dictDecompress;
+
+    /**
+     * Instantiates a new Zstd codec without dictionary.
+     *
+     * @param level the level
+     */
+    public ZstdCodec(int level) {
+        this(level, null, null);
+    }
+
+    /**
+     * Instantiates a new Zstd codec with a trained dictionary.
+     *
+     * @param level          the level
+     * @param dictionaryName the dictionary name
+     * @param dictionary     the dictionary
+     */
+    public ZstdCodec(int level, String dictionaryName, byte[] dictionary) {
+        this.level = level;
+        this.dictionaryName = dictionaryName;
+        this.dictCompress = dictionary == null ? null : new ZstdDictCompress(dictionary, level);
+        this.dictDecompress = dictionary == null ? null : new ZstdDictDecompress(dictionary);
+    }
+
+    @Override
+    public String contentEncoding() {
+        return dictionaryName == null ? CONTENT_ENCODING : CONTENT_ENCODING + ";dict=" + dictionaryName;
+    }
+
+    @Override
+    public OutputStream encode(OutputStream out) throws IOException {
+        ZstdOutputStream zstdOutputStream = new ZstdOutputStream(out, level);
+        if (dictCompress != null) {
+            zstdOutputStream.setDict(dictCompress);
+        }
+        return zstdOutputStream;
+    }
+
+    @Override
+    public InputStream decode(InputStream in) throws IOException {
+        ZstdInputStream zstdInputStream = new ZstdInputStream(in);
+        if (dictDecompress != null) {
+            zstdInputStream.setDict(dictDecompress);
+        }
+        return zstdInputStream;
+    }
+}
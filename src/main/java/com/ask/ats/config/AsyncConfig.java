@@ -1,12 +1,13 @@
 package com.ask.ats.config;
 
 import java.util.concurrent.Executor;
-import java.util.concurrent.ThreadPoolExecutor;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 /**
  * The type Async config.
@@ -23,20 +24,95 @@ public class AsyncConfig {
     @Value("${curately.async.queueCapacity}")
     private int queueCapacity;
 
+    @Value("${curately.async.virtualThreads}")
+    private boolean virtualThreads;
+
+    @Value("${scheduled.fanOut.poolSize}")
+    private int tenantPoolSize;
+
+    @Value("${scheduled.poolSize}")
+    private int schedulerPoolSize;
+
+    @Value("${atsService.chunking.poolSize}")
+    private int chunkPoolSize;
+
     /**
-     * Task executor executor.
+     * Task executor executor. With virtual threads every task gets its own virtual thread, the concurrency against
+     * the ats api, sql server and sns is then bounded by the {@link com.ask.ats.service.DownstreamLimiter} instead
+     * of the pool size. Virtual threads need java 21, see the java21 maven profile.
      *
      * @return the executor
      */
     @Bean("taskExecutor")
     public Executor taskExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("AsyncExecutor-");
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(corePoolSize);
         executor.setMaxPoolSize(maxPoolSize);
         executor.setQueueCapacity(queueCapacity);
         executor.setThreadNamePrefix("AsyncExecutor-");
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Executor running the synchronous part of each tenant of a scheduled job fan out.
+     *
+     * @return the executor
+     */
+    @Bean("tenantExecutor")
+    public Executor tenantExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("TenantExecutor-");
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(tenantPoolSize);
+        executor.setMaxPoolSize(tenantPoolSize);
+        executor.setThreadNamePrefix("TenantExecutor-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Executor fetching the id chunks of the ats calls split by the {@link com.ask.ats.service.ChunkedFetcher}. It is
+     * kept apart from the task executor, the tasks block on their chunks and must not wait on their own pool.
+     *
+     * @return the executor
+     */
+    @Bean("chunkExecutor")
+    public Executor chunkExecutor() {
+        if (virtualThreads) {
+            return virtualThreadExecutor("ChunkExecutor-");
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(chunkPoolSize);
+        executor.setMaxPoolSize(chunkPoolSize);
+        executor.setThreadNamePrefix("ChunkExecutor-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Scheduler triggering the cron and fixed delay tasks, sized so a slow job cannot hold back the others.
+     *
+     * @return the thread pool task scheduler
+     */
+    @Bean("scheduledTaskScheduler")
+    public ThreadPoolTaskScheduler scheduledTaskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(schedulerPoolSize);
+        scheduler.setThreadNamePrefix("Scheduler-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    private static Executor virtualThreadExecutor(String threadNamePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(true);
+        return executor;
+    }
 }
@@ -5,8 +5,13 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.sns.SnsClient;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.multipart.MultipartConfiguration;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+
+import java.time.Duration;
 
 /**
  * The type Aws config.
@@ -23,17 +28,57 @@ public class AwsConfig {
     @Value("${aws.sns.secretKey}")
     private String secretKey;
 
+    @Value("${aws.sns.async.maxConcurrency}")
+    private int snsMaxConcurrency;
+
+    @Value("${aws.sns.async.connectionAcquisitionTimeout}")
+    private int snsConnectionAcquisitionTimeout;
+
+    @Value("${aws.accessKey}")
+    private String s3AccessKey;
+
+    @Value("${aws.secretKey}")
+    private String s3SecretKey;
+
+    @Value("${aws.s3.claimCheck.multipartThresholdBytes}")
+    private long s3MultipartThresholdBytes;
+
+    @Value("${aws.s3.claimCheck.partSizeBytes}")
+    private long s3PartSizeBytes;
+
     /**
-     * Sns client sns client.
+     * Sns async client backed by the netty nio http client.
      *
-     * @return the sns client
+     * @return the sns async client
      */
     @Bean
-    public SnsClient snsClient() {
-        return SnsClient.builder()
+    public SnsAsyncClient snsAsyncClient() {
+        return SnsAsyncClient.builder()
                 .region(Region.of(awsRegion))
                 .credentialsProvider(StaticCredentialsProvider.create(
                         AwsBasicCredentials.create(accessKey, secretKey)))
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(snsMaxConcurrency)
+                        .connectionAcquisitionTimeout(Duration.ofSeconds(snsConnectionAcquisitionTimeout)))
+                .build();
+    }
+
+    /**
+     * S3 async client with multipart uploads enabled for objects above the configured threshold.
+     *
+     * @return the s3 async client
+     */
+    @Bean
+    public S3AsyncClient s3AsyncClient() {
+        return S3AsyncClient.builder()
+                .region(Region.of(awsRegion))
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(s3AccessKey, s3SecretKey)))
+                .multipartEnabled(true)
+                .multipartConfiguration(MultipartConfiguration.builder()
+                        .thresholdInBytes(s3MultipartThresholdBytes)
+                        .minimumPartSizeInBytes(s3PartSizeBytes)
+                        .build())
                 .build();
     }
 }
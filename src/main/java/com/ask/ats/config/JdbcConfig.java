@@ -0,0 +1,83 @@
+package com.ask.ats.config;
+
+import com.ask.ats.service.DownstreamLimiter;
+import com.ask.ats.service.DownstreamLimiter.Downstream;
+import com.ask.ats.service.DownstreamLimiter.Permit;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * The type Jdbc config. The jdbc template, and the named parameter jdbc template boot builds on top of it, borrow
+ * connections through the {@link DownstreamLimiter}, so a connection is only requested while holding a sql server
+ * permit and the permit is returned with the connection.
+ */
+@Configuration
+public class JdbcConfig {
+
+    /**
+     * Jdbc template jdbc template.
+     *
+     * @param dataSource        the data source
+     * @param downstreamLimiter the downstream limiter
+     * @return the jdbc template
+     */
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource, DownstreamLimiter downstreamLimiter) {
+        return new JdbcTemplate(new LimitedDataSource(dataSource, downstreamLimiter));
+    }
+
+    private static final class LimitedDataSource extends DelegatingDataSource {
+
+        private final DownstreamLimiter downstreamLimiter;
+
+        private LimitedDataSource(DataSource targetDataSource, DownstreamLimiter downstreamLimiter) {
+            super(targetDataSource);
+            this.downstreamLimiter = downstreamLimiter;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Permit permit;
+            try {
+                permit = downstreamLimiter.acquire(Downstream.SQL_SERVER);
+            } catch (IllegalStateException e) {
+                throw new SQLTransientConnectionException(e.getMessage(), e);
+            }
+            // the permit is held until the connection is closed, or released right away when none could be borrowed
+            try {
+                return limited(super.getConnection(), permit);
+            } catch (SQLException | RuntimeException e) {
+                permit.close();
+                throw e;
+            }
+        }
+
+        private static Connection limited(Connection connection, Permit permit) {
+            return (Connection) Proxy.newProxyInstance(JdbcConfig.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                            try {
+                                connection.close();
+                            } finally {
+                                permit.close();
+                            }
+                            return null;
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
@@ -1,10 +1,23 @@
 package com.ask.ats.config;
 
-import java.time.Duration;
+import com.ask.ats.service.DownstreamLimiter;
+import com.ask.ats.service.DownstreamLimiter.Downstream;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.io.SocketConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 /**
@@ -19,15 +32,89 @@ public class RestTemplateConfig {
     @Value("${bullhorn.readTimeout:60}")
     private int readTimeOut;
 
+    @Value("${atsService.http.maxTotal}")
+    private int maxTotal;
+
+    @Value("${atsService.http.maxPerRoute}")
+    private int maxPerRoute;
+
+    @Value("${atsService.http.connectionRequestTimeout}")
+    private int connectionRequestTimeout;
+
+    @Value("${atsService.http.connectionTtl}")
+    private int connectionTtl;
+
+    @Value("${atsService.http.idleEviction}")
+    private int idleEviction;
+
+    /**
+     * Pooled connection manager shared by every rest template call, sized per route so a single host cannot take
+     * the whole pool.
+     *
+     * @return the pooling http client connection manager
+     */
+    @Bean
+    public PoolingHttpClientConnectionManager httpClientConnectionManager() {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultSocketConfig(SocketConfig.custom()
+                        .setSoKeepAlive(true)
+                        .setSoTimeout(Timeout.ofSeconds(readTimeOut))
+                        .build())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofSeconds(connectionTimeOut))
+                        .setSocketTimeout(Timeout.ofSeconds(readTimeOut))
+                        .setTimeToLive(TimeValue.ofSeconds(connectionTtl))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Keep-alive http client evicting expired and idle connections in the background.
+     *
+     * @param connectionManager the connection manager
+     * @return the closeable http client
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager connectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofSeconds(connectionRequestTimeout))
+                        .setResponseTimeout(Timeout.ofSeconds(readTimeOut))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(idleEviction))
+                .build();
+    }
+
+    /**
+     * Exposes the pool stats as {@code httpcomponents.httpclient.pool.*} metrics.
+     *
+     * @param connectionManager the connection manager
+     * @return the meter binder
+     */
+    @Bean
+    public MeterBinder httpClientPoolMetrics(PoolingHttpClientConnectionManager connectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "rest-template");
+    }
+
     /**
-     * Rest template rest template.
+     * Rest template rest template. Every exchange holds an ats api permit of the downstream limiter.
      *
-     * @param builder the builder
+     * @param builder           the builder
+     * @param httpClient        the http client
+     * @param downstreamLimiter the downstream limiter
      * @return the rest template
      */
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        return builder.setConnectTimeout(Duration.ofSeconds(connectionTimeOut))
-                .setReadTimeout(Duration.ofSeconds(readTimeOut)).build();
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient httpClient,
+                                     DownstreamLimiter downstreamLimiter) {
+        return builder.requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .additionalInterceptors((request, body, execution) ->
+                        downstreamLimiter.call(Downstream.ATS_API, () -> execution.execute(request, body)))
+                .build();
     }
 }
@@ -3,19 +3,27 @@ package com.ask.ats.config;
 import com.ask.ats.repository.CuratelyRepository;
 import com.ask.ats.service.AsyncService;
 import com.ask.ats.service.ClientService;
+import com.ask.ats.service.OutboxDrainer;
+import com.ask.ats.service.TenantFanOutExecutor;
+import com.ask.ats.service.TenantShardCoordinator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.dao.DataAccessException;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.ask.ats.utils.Constants.*;
 
 /**
  * The type Scheduled task config.
@@ -79,20 +87,46 @@ public class ScheduledTaskConfig implements SchedulingConfigurer {
     @Value("${scheduled.jobDiva.candidateNotes.cronExpression}")
     private String candidateNotesCornExpressionInSec;
 
+    @Value("${aws.sns.outbox.enabled}")
+    private Boolean isOutboxEnabled;
+
+    @Value("${aws.sns.outbox.drainDelayMillis}")
+    private long outboxDrainDelayMillis;
+
+    @Value("${scheduled.sharding.heartbeatSeconds}")
+    private long shardHeartbeatSeconds;
+
     private final AsyncService asyncService;
     private final CuratelyRepository curatelyRepository;
     private final ClientService clientService;
+    private final OutboxDrainer outboxDrainer;
+    private final TenantFanOutExecutor tenantFanOutExecutor;
+    private final ThreadPoolTaskScheduler scheduledTaskScheduler;
+    private final TenantShardCoordinator tenantShardCoordinator;
 
 
     @Autowired
-    public ScheduledTaskConfig(AsyncService asyncService, CuratelyRepository curatelyRepository, ClientService clientService) {
+    public ScheduledTaskConfig(AsyncService asyncService, CuratelyRepository curatelyRepository, ClientService clientService,
+                               OutboxDrainer outboxDrainer, TenantFanOutExecutor tenantFanOutExecutor,
+                               @Qualifier("scheduledTaskScheduler") ThreadPoolTaskScheduler scheduledTaskScheduler,
+                               TenantShardCoordinator tenantShardCoordinator) {
         this.asyncService = asyncService;
         this.curatelyRepository = curatelyRepository;
         this.clientService = clientService;
+        this.outboxDrainer = outboxDrainer;
+        this.tenantFanOutExecutor = tenantFanOutExecutor;
+        this.scheduledTaskScheduler = scheduledTaskScheduler;
+        this.tenantShardCoordinator = tenantShardCoordinator;
     }
 
     @Override
     public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.setTaskScheduler(scheduledTaskScheduler);
+        if (tenantShardCoordinator.isEnabled()) {
+            tenantShardCoordinator.heartbeat();
+            taskRegistrar.addFixedDelayTask(tenantShardCoordinator::heartbeat, Duration.ofSeconds(shardHeartbeatSeconds));
+        }
+
         if (Boolean.TRUE.equals(isEnabled)) {
             taskRegistrar.addCronTask(this::fetchEventsOnSchedule, cronExpression);
         }
@@ -113,16 +147,17 @@ public class ScheduledTaskConfig implements SchedulingConfigurer {
         if (Boolean.TRUE.equals(isCandidateNotesEnabled)) {
             taskRegistrar.addCronTask(this::fetchLatestCandidateNotes, candidateNotesCornExpressionInSec);
         }
+        if (Boolean.TRUE.equals(isOutboxEnabled)) {
+            taskRegistrar.addFixedDelayTask(outboxDrainer::drain, Duration.ofMillis(outboxDrainDelayMillis));
+        }
     }
 
-    private void fetchEventsOnSchedule() throws DataAccessException {
+    private void fetchEventsOnSchedule() {
         try {
             log.info("Scheduled task started to process bullhorn events.");
             List<Integer> clientIds = curatelyRepository.fetchClientIdsByAts(bullhornAtsId);
-            clientIds.forEach(clientId -> {
-                clientService.getListEvent(clientId, bullhornRecruiter);
-            });
-            log.info("Scheduled task completed to process bullhorn events.");
+            tenantFanOutExecutor.fanOut(JOB_BULLHORN_EVENTS, clientIds, clientId -> CompletableFuture.completedFuture(
+                    clientService.getListEvent(clientId, bullhornRecruiter)));
         } catch (DataAccessException e) {
             log.error("SQL error while fetching active bullhorn event subscription", e);
         } catch (Exception e) {
@@ -134,10 +169,8 @@ public class ScheduledTaskConfig implements SchedulingConfigurer {
         try {
             log.info("Scheduled task started to update job diva agent search.");
             List<Integer> clientIds = curatelyRepository.fetchClientIdsByAts(jobDivaAtsId);
-            clientIds.forEach(clientId -> {
-                asyncService.processJobsAgentSearch(clientId, jobDivaRecruiter);
-            });
-            log.info("Scheduled task completed to update job diva agent search for clients {}", clientIds);
+            tenantFanOutExecutor.fanOut(JOB_JOB_DIVA_AGENT_SEARCH, clientIds,
+                    clientId -> asyncService.processJobsAgentSearch(clientId, jobDivaRecruiter));
         } catch (Exception e) {
             log.error("Unknown error while running job diva agent search schedule", e);
         }
@@ -147,10 +180,8 @@ public class ScheduledTaskConfig implements SchedulingConfigurer {
         try {
             log.info("Scheduled task started to update job diva job applicants.");
             List<Integer> clientIds = curatelyRepository.fetchClientIdsByAts(jobDivaAtsId);
-            clientIds.forEach(clientId -> {
-                asyncService.processJobApplicationsAsync(clientId, jobDivaRecruiter);
-            });
-            log.info("Scheduled task completed to update job diva job applicants for clients {}", clientIds);
+            tenantFanOutExecutor.fanOut(JOB_JOB_DIVA_APPLICANTS, clientIds,
+                    clientId -> asyncService.processJobApplicationsAsync(clientId, jobDivaRecruiter));
         } catch (Exception e) {
             log.error("Unknown error while running job diva jobs schedule", e);
         }
@@ -160,10 +191,8 @@ public class ScheduledTaskConfig implements SchedulingConfigurer {
         try {
             log.info("Scheduled task started to fetch latest candidate notes.");
             List<Integer> clientIds = curatelyRepository.fetchClientIdsByAts(jobDivaAtsId);
-            clientIds.forEach(clientId -> {
-                asyncService.processNewCandidateNotes(clientId, jobDivaRecruiter);
-            });
-            log.info("Scheduled task completed to fetch latest candidate notes for clients {}", clientIds);
+            tenantFanOutExecutor.fanOut(JOB_JOB_DIVA_CANDIDATE_NOTES, clientIds,
+                    clientId -> asyncService.processNewCandidateNotes(clientId, jobDivaRecruiter));
         } catch (Exception e) {
             log.error("Unknown error while running candidate notes scheduler", e);
         }
@@ -173,8 +202,8 @@ public class ScheduledTaskConfig implements SchedulingConfigurer {
         try {
             log.info("Scheduled task started to fetch jobs from agileOne.");
             String formattedDate = getYesterdayDateFormatted();
-            asyncService.processAgileOneJobs(agileOneClient, agileOneRecruiter, formattedDate, Boolean.TRUE);
-            log.info("Scheduled task completed for getting jobs from agileOne.");
+            tenantFanOutExecutor.fanOut(JOB_AGILE_ONE_JOBS, List.of(agileOneClient), clientId ->
+                    asyncService.processAgileOneJobs(clientId, agileOneRecruiter, formattedDate, Boolean.TRUE));
         } catch (Exception e) {
             log.error("Unknown error while running agileOne jobs scheduler", e);
         }
@@ -184,8 +213,8 @@ public class ScheduledTaskConfig implements SchedulingConfigurer {
         try {
             log.info("Scheduled task started to fetch assignments from agileOne.");
             String formattedDate = getYesterdayDateFormatted();
-            asyncService.processAgileOneAssignments(agileOneClient, formattedDate, agileOneRecruiter, Boolean.TRUE);
-            log.info("Scheduled task completed for getting assignments from agileOne.");
+            tenantFanOutExecutor.fanOut(JOB_AGILE_ONE_ASSIGNMENTS, List.of(agileOneClient), clientId ->
+                    asyncService.processAgileOneAssignments(clientId, formattedDate, agileOneRecruiter, Boolean.TRUE));
         } catch (Exception e) {
             log.error("Unknown error while running agileOne assignments scheduler", e);
         }
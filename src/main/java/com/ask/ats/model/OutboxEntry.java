@@ -0,0 +1,21 @@
+package com.ask.ats.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+
+/**
+ * The type Outbox entry.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEntry {
+    private long id;
+    private String topicArn;
+    private int attempts;
+    private PublishBatchRequestEntry entry;
+}
@@ -0,0 +1,20 @@
+package com.ask.ats.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The type Payload pointer, published in place of an sns message whose payload was offloaded to s3.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayloadPointer {
+    private String bucket;
+    private String key;
+    private long sizeBytes;
+    private String originalEntryId;
+}
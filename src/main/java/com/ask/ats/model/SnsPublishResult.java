@@ -0,0 +1,55 @@
+package com.ask.ats.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The type Sns publish result.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SnsPublishResult {
+    private int published;
+    private int retried;
+    private int dropped;
+    private List<String> droppedIds;
+
+    /**
+     * Empty sns publish result.
+     *
+     * @return the sns publish result
+     */
+    public static SnsPublishResult empty() {
+        return new SnsPublishResult(0, 0, 0, Collections.emptyList());
+    }
+
+    /**
+     * Merge the counts of both results into a new result.
+     *
+     * @param other the other
+     * @return the sns publish result
+     */
+    public SnsPublishResult merge(SnsPublishResult other) {
+        List<String> mergedDroppedIds = new ArrayList<>(droppedIds);
+        mergedDroppedIds.addAll(other.droppedIds);
+        return new SnsPublishResult(published + other.published, retried + other.retried,
+                dropped + other.dropped, mergedDroppedIds);
+    }
+
+    /**
+     * Whether every entry was eventually published.
+     *
+     * @return the boolean
+     */
+    public boolean isComplete() {
+        return dropped == 0;
+    }
+}
@@ -0,0 +1,32 @@
+package com.ask.ats.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The type Tenant run summary, the outcome of one scheduled job run fanned out over the tenants.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TenantRunSummary {
+    private String jobName;
+    private int tenants;
+    private int succeeded;
+    private int failed;
+    private int timedOut;
+    private int skipped;
+    private int deferred;
+    private long events;
+    private long durationMillis;
+    private Map<Integer, Long> tenantLatencyMillis;
+    private List<Integer> failedClientIds;
+    private List<Integer> timedOutClientIds;
+    private List<Integer> skippedClientIds;
+}
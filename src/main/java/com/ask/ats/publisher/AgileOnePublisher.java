@@ -2,6 +2,7 @@ package com.ask.ats.publisher;
 
 import com.ask.ats.model.GenericResponse;
 import com.ask.ats.model.SnsEvent;
+import com.ask.ats.model.SnsPublishResult;
 import com.ask.ats.model.agileone.AssignmentDetails;
 import com.ask.ats.model.agileone.JobDetails;
 import com.ask.ats.repository.CuratelyRepository;
@@ -14,14 +15,12 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.services.sns.SnsClient;
-import software.amazon.awssdk.services.sns.model.PublishBatchRequest;
 import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
-import software.amazon.awssdk.services.sns.model.PublishBatchResponse;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @Slf4j
@@ -29,18 +28,18 @@ public class AgileOnePublisher {
 
     private final ClientService service;
     private final ObjectMapper objectMapper;
-    private final SnsClient snsClient;
+    private final SnsEventDispatcher snsEventDispatcher;
     private final CuratelyRepository curatelyRepository;
 
     @Value("${aws.sns.agileOneTopicArn}")
     private String snsTopicArn;
 
-    public AgileOnePublisher(ClientService service, ObjectMapper objectMapper, SnsClient snsClient,
+    public AgileOnePublisher(ClientService service, ObjectMapper objectMapper, SnsEventDispatcher snsEventDispatcher,
                              CuratelyRepository curatelyRepository) {
         this.service = service;
 
         this.objectMapper = objectMapper;
-        this.snsClient = snsClient;
+        this.snsEventDispatcher = snsEventDispatcher;
         this.curatelyRepository = curatelyRepository;
     }
 
@@ -120,12 +119,11 @@ public class AgileOnePublisher {
                 .build();
     }
 
-    public void publishBatch(List<PublishBatchRequestEntry> publishBatchRequestEntries) throws RuntimeException {
-        PublishBatchRequest publishRequest = PublishBatchRequest.builder()
-                .topicArn(snsTopicArn)
-                .publishBatchRequestEntries(publishBatchRequestEntries)
-                .build();
-        PublishBatchResponse publishResponse = snsClient.publishBatch(publishRequest);
-        log.info("Published message successfully: {}", publishResponse.successful());
+    public CompletableFuture<SnsPublishResult> publish(int clientId, List<PublishBatchRequestEntry> publishBatchRequestEntries) {
+        return snsEventDispatcher.dispatch(clientId, snsTopicArn, publishBatchRequestEntries);
+    }
+
+    public SnsEventStream stream(int clientId) {
+        return snsEventDispatcher.stream(clientId, snsTopicArn);
     }
 }
@@ -23,6 +23,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
@@ -31,10 +32,7 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.services.sns.SnsClient;
-import software.amazon.awssdk.services.sns.model.PublishBatchRequest;
 import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
-import software.amazon.awssdk.services.sns.model.PublishBatchResponse;
 
 import static com.ask.ats.utils.Constants.*;
 
@@ -48,7 +46,7 @@ public class BullhornEventPublisher {
 
     private final ClientService entityService;
     private final NamedParameterJdbcTemplate jdbcTemplate;
-    private final SnsClient snsClient;
+    private final SnsEventDispatcher snsEventDispatcher;
     private final ObjectMapper objectMapper;
     private static final String requiredFieldsConfig = "title,description,onSite";
 
@@ -58,16 +56,16 @@ public class BullhornEventPublisher {
     /**
      * Instantiates a new Async event processor service.
      *
-     * @param entityService the entity service
-     * @param jdbcTemplate  the jdbc template
-     * @param snsClient     the sns client
-     * @param objectMapper  the object mapper
+     * @param entityService      the entity service
+     * @param jdbcTemplate       the jdbc template
+     * @param snsEventDispatcher the sns event dispatcher
+     * @param objectMapper       the object mapper
      */
     public BullhornEventPublisher(@Lazy ClientService entityService, NamedParameterJdbcTemplate jdbcTemplate,
-                                  SnsClient snsClient, ObjectMapper objectMapper) {
+                                  SnsEventDispatcher snsEventDispatcher, ObjectMapper objectMapper) {
         this.entityService = entityService;
         this.jdbcTemplate = jdbcTemplate;
-        this.snsClient = snsClient;
+        this.snsEventDispatcher = snsEventDispatcher;
         this.objectMapper = objectMapper;
     }
 
@@ -76,13 +74,18 @@ public class BullhornEventPublisher {
      *
      * @param events   the events
      * @param clientId the client id
+     * @return whether sns accepted every event it was handed, entities failing before the publish, e.g. on a
+     * failed fetch, do not count as dropped
      */
-    public void processEventsAsync(List<EventResponse.Event> events, int clientId, int recruiterId) {
+    public boolean processEventsAsync(List<EventResponse.Event> events, int clientId, int recruiterId) {
         log.info("Asynchronously processing {} events", events.size());
         Map<String, List<EventResponse.Event>> groupedEventsByName = events.stream()
                 .collect(Collectors.groupingBy(EventResponse.Event::getEntityName));
 
-        groupedEventsByName.forEach((entityName, eventsByName) -> {
+        boolean allPublished = true;
+        for (Map.Entry<String, List<EventResponse.Event>> group : groupedEventsByName.entrySet()) {
+            String entityName = group.getKey();
+            List<EventResponse.Event> eventsByName = group.getValue();
             Map<String, List<String>> entityIdFieldsMap = eventsByName.stream()
                     .collect(Collectors.groupingBy(EventResponse.Event::getEntityId))
                     .values().stream()
@@ -107,8 +110,11 @@ public class BullhornEventPublisher {
                                     + entry.getValue().get(0).getEntityEventType(),
                             entry -> buildAddedOrRemovedIdMap(entry.getValue())
                     ));
-            processEventEntity(entityIdFieldsMap, entityName, clientId, entityIdMetadataMap, Boolean.FALSE, recruiterId, Collections.emptyMap());
-        });
+            EntityPublishOutcome outcome = publishEventEntity(entityIdFieldsMap, entityName, clientId,
+                    entityIdMetadataMap, Boolean.FALSE, recruiterId, Collections.emptyMap());
+            allPublished &= outcome.publishResult() == null || outcome.publishResult().isComplete();
+        }
+        return allPublished;
     }
 
     private List<String> fetchUserProperties(String entityName) {
@@ -178,10 +184,18 @@ public class BullhornEventPublisher {
     public <T> ValidationResult processEventEntity(
             Map<String, List<String>> entityIdFieldsMap, String entityName, int clientId,
             Map<String, Map<String, List<Integer>>> entityIdMetadataMap, boolean manualProcess, int recruiterId, Map<String, String> missingFields) {
+        return this.<T>publishEventEntity(entityIdFieldsMap, entityName, clientId, entityIdMetadataMap, manualProcess,
+                recruiterId, missingFields).validationResult();
+    }
+
+    private <T> EntityPublishOutcome publishEventEntity(
+            Map<String, List<String>> entityIdFieldsMap, String entityName, int clientId,
+            Map<String, Map<String, List<Integer>>> entityIdMetadataMap, boolean manualProcess, int recruiterId,
+            Map<String, String> missingFields) {
         ValidationResult validationResult = null;
         if (entityIdFieldsMap.isEmpty()) {
             log.error("Ats values are empty in the request for {}, client {}", entityName, clientId);
-            return validationResult;
+            return new EntityPublishOutcome(validationResult, null);
         }
 
         Map<Integer, String> entityIdEventTypeMap = entityIdFieldsMap.keySet().stream()
@@ -209,7 +223,7 @@ public class BullhornEventPublisher {
                     JobOrder job = objectMapper.convertValue(payload, JobOrder.class);
                     validationResult = validateAndBuildJob(job, missingFields);
                     if (Boolean.FALSE.equals(validationResult.getIsValidJob())){
-                        return validationResult;
+                        return new EntityPublishOutcome(validationResult, null);
                     }
                     LinkedHashMap<String,Object> jobMap = objectMapper.convertValue(
                             job,
@@ -219,25 +233,32 @@ public class BullhornEventPublisher {
                     payload = (T) jobMap;
                 }
 
-                Boolean isSuccess = processEvents(entityIdFieldsMap, entityName, clientId, payload,
+                SnsPublishResult publishResult = processEvents(entityIdFieldsMap, entityName, clientId, payload,
                         entityIdEventTypeMap, entityIdMetadataMap, manualProcess, recruiterId);
-                if (Boolean.TRUE.equals(isSuccess)) {
+                if (publishResult != null && publishResult.isComplete()) {
                     log.info("Success publishing messages of {}, client {} to Bullhorn sns topic", entityName,
                             clientId);
-                    return ValidationResult.builder()
+                    return new EntityPublishOutcome(ValidationResult.builder()
                             .isValidJob(Boolean.TRUE)
-                            .build();
+                            .build(), publishResult);
                 }
+                log.info("Error publishing messages of {}, client {} to Bullhorn sns topic", entityName, clientId);
+                return new EntityPublishOutcome(ValidationResult.builder()
+                        .isValidJob(Boolean.FALSE)
+                        .build(), publishResult);
             }
         }
 
         log.info("Error publishing messages of {}, client {} to Bullhorn sns topic", entityName, clientId);
-        return ValidationResult.builder()
+        return new EntityPublishOutcome(ValidationResult.builder()
                 .isValidJob(Boolean.FALSE)
-                .build();
+                .build(), null);
     }
 
-    private <T> Boolean processEvents(Map<String, List<String>> entityIdFieldsMap, String entityName,
+    /**
+     * Publishes the events of the entities, returning null when they failed before anything was handed to sns.
+     */
+    private <T> SnsPublishResult processEvents(Map<String, List<String>> entityIdFieldsMap, String entityName,
                                       int clientId, T data, Map<Integer, String> entityIdEventTypeMap,
                                       Map<String, Map<String, List<Integer>>> entityIdMetadataMap, boolean manualProcess, int recruiterId) {
         log.info("Started publishing {} {} entities for client {} as events to bullhorn sns topic", entityName,
@@ -264,7 +285,7 @@ public class BullhornEventPublisher {
 
         if (dataMap.isEmpty()) {
             log.warn("Get multiple entities data is empty for {} entities {}", entityName, dataMap.keySet());
-            return false;
+            return null;
         }
 
         List<PublishBatchRequestEntry> publishRequests = new ArrayList<>();
@@ -282,7 +303,7 @@ public class BullhornEventPublisher {
                 Map<String, Object> result = performTearSheetUpdateBuild(dataString, clientId,
                         entityIdMetadataMap.getOrDefault(key, CommonUtils.getRemovedOrAddedEmptyMap()), metadata);
                 if (!(boolean) result.getOrDefault("success", false)) {
-                    return false;
+                    return null;
                 }
                 dataString = (String) result.getOrDefault("updatedData", dataString);
             }
@@ -306,19 +327,31 @@ public class BullhornEventPublisher {
                         .id(UUID.randomUUID().toString())
                         .build());
             }
-            if (publishRequests.size() == 10) {
-                publishBatch(publishRequests);
-                publishRequests.clear();
-                log.info("Published 10 events of {}, client {} to Bullhorn sns topic", entityName, clientId);
-            }
         }
 
-        if (!publishRequests.isEmpty()) {
-            publishBatch(publishRequests);
-            log.info("Published {} events of {}, client {} to Bullhorn sns topic", publishRequests.size(), entityName,
-                    clientId);
+        if (publishRequests.isEmpty()) {
+            return SnsPublishResult.empty();
         }
-        return true;
+        SnsPublishResult result;
+        try {
+            result = snsEventDispatcher.dispatch(clientId, snsTopicArn, publishRequests).join();
+        } catch (CompletionException e) {
+            log.error("Error publishing {} events of {}, client {} to Bullhorn sns topic", publishRequests.size(),
+                    entityName, clientId, e.getCause());
+            return new SnsPublishResult(0, 0, publishRequests.size(),
+                    publishRequests.stream().map(PublishBatchRequestEntry::id).toList());
+        }
+        if (!result.isComplete()) {
+            log.error("Dropped {} of {} events of {}, client {} while publishing to Bullhorn sns topic",
+                    result.getDropped(), publishRequests.size(), entityName, clientId);
+            return result;
+        }
+        log.info("Published {} events of {}, client {} to Bullhorn sns topic", result.getPublished(), entityName,
+                clientId);
+        return result;
+    }
+
+    private record EntityPublishOutcome(ValidationResult validationResult, SnsPublishResult publishResult) {
     }
 
     private final Map<String, PropertyDescriptor> propertyDescriptorCache = Arrays.stream(requiredFieldsConfig.split(","))
@@ -469,15 +502,6 @@ public class BullhornEventPublisher {
 
 
 
-    private void publishBatch(List<PublishBatchRequestEntry> publishBatchRequestEntries) {
-        PublishBatchRequest publishRequest = PublishBatchRequest.builder()
-                .topicArn(snsTopicArn)
-                .publishBatchRequestEntries(publishBatchRequestEntries)
-                .build();
-        PublishBatchResponse publishResponse = snsClient.publishBatch(publishRequest);
-        log.info("Published message successfully: {}", publishResponse.successful());
-    }
-
     private String convertModelToString(SnsEvent snsEvent) {
         try {
             return objectMapper.writeValueAsString(snsEvent);
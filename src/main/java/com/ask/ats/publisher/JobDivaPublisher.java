@@ -1,12 +1,19 @@
 package com.ask.ats.publisher;
 
+import com.ask.ats.codec.EventCodec;
+import com.ask.ats.codec.EventCodecRegistry;
 import com.ask.ats.model.Address;
 import com.ask.ats.model.Applicant;
 import com.ask.ats.model.GenericResponse;
 import com.ask.ats.model.SnsEvent;
 import com.ask.ats.model.jobdiva.*;
 import com.ask.ats.repository.CuratelyRepository;
+import com.ask.ats.service.CandidateEligibilityCache;
+import com.ask.ats.service.CandidateEligibilityCache.Kind;
+import com.ask.ats.service.ChunkedFetcher;
 import com.ask.ats.service.ClientService;
+import com.ask.ats.service.DetailsCoalescer;
+import com.ask.ats.service.PagedFetcher;
 import com.ask.ats.utils.CommonUtils;
 import com.ask.ats.utils.CompressionUtil;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -27,6 +34,11 @@ import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.ask.ats.utils.Constants.*;
@@ -41,6 +53,12 @@ public class JobDivaPublisher {
     @Value("${jobDiva.resumeCount}")
     private int resumeCount;
 
+    @Value("${aws.sns.codec.jobDiva}")
+    private String codecName;
+
+    @Value("${jobDiva.jobDetailTtlSeconds}")
+    private long jobDetailTtlSeconds;
+
     private static final Map<String, MessageAttributeValue> messageAttributes = new HashMap<>(
             Map.of("atsName", MessageAttributeValue.builder()
                     .dataType("String")
@@ -50,13 +68,26 @@ public class JobDivaPublisher {
     private final ClientService clientService;
     private final ObjectMapper objectMapper;
     private final CuratelyRepository curatelyRepository;
+    private final EventCodecRegistry eventCodecRegistry;
+    private final ChunkedFetcher chunkedFetcher;
+    private final DetailsCoalescer detailsCoalescer;
+    private final CandidateEligibilityCache eligibilityCache;
+    private final PagedFetcher pagedFetcher;
+    private final Map<String, JobDetailEntry> jobDetails = new ConcurrentHashMap<>();
 
 
     public JobDivaPublisher(ClientService clientService, ObjectMapper objectMapper,
-                            CuratelyRepository curatelyRepository) {
+                            CuratelyRepository curatelyRepository, EventCodecRegistry eventCodecRegistry,
+                            ChunkedFetcher chunkedFetcher, DetailsCoalescer detailsCoalescer,
+                            CandidateEligibilityCache eligibilityCache, PagedFetcher pagedFetcher) {
         this.clientService = clientService;
         this.objectMapper = objectMapper;
         this.curatelyRepository = curatelyRepository;
+        this.eventCodecRegistry = eventCodecRegistry;
+        this.chunkedFetcher = chunkedFetcher;
+        this.detailsCoalescer = detailsCoalescer;
+        this.eligibilityCache = eligibilityCache;
+        this.pagedFetcher = pagedFetcher;
     }
 
 
@@ -76,15 +107,16 @@ public class JobDivaPublisher {
         candidateIds.addAll(jobApplicants.stream().map(JobApplicant::getCandidateId)
                 .collect(Collectors.toSet()));
 
-        ResponseEntity<GenericResponse<List<T>>> response = fetchDetails(String.join(",", candidateIds), CANDIDATE_DETAIL, clientId);
-        GenericResponse<List<T>> body = response.getBody();
+        ResponseEntity<GenericResponse<List<Candidate>>> response = detailsCoalescer.getDetails(candidateIds,
+                CANDIDATE_DETAIL, clientId, Candidate.class, Candidate::getCandidateid);
+        GenericResponse<List<Candidate>> body = response.getBody();
 
         if (CommonUtils.isInvalidResponse(body)) {
             CommonUtils.handleErrorResponse(CANDIDATE_DETAIL, clientId, response);
             return null;
         }
 
-        final List<Candidate> candidates = (List<Candidate>) convertResponse(body, Candidate.class);
+        final List<Candidate> candidates = body.getData();
         final Map<String, Candidate> candidateMap = candidates.stream().collect(Collectors.toMap(
                 Candidate::getCandidateid,
                 candidate -> candidate
@@ -138,14 +170,13 @@ public class JobDivaPublisher {
 
         SnsEvent snsEvent = buildSnsEvent("Job", jobId, clientId, dataString, recruiterId,
                 isSourcedEnabled ? "Insert" : "Update");
-        String message = convertModelToString(snsEvent);
+        String base64EncodedString = compressEvent(snsEvent);
 
-        if (message != null) {
-            String base64EncodedString = CompressionUtil.compress(message);
+        if (base64EncodedString != null) {
             return PublishBatchRequestEntry.builder()
                     .message(base64EncodedString)
                     .id(UUID.randomUUID().toString())
-                    .messageAttributes(messageAttributes)
+                    .messageAttributes(eventMessageAttributes())
                     .build();
         }
 
@@ -164,18 +195,19 @@ public class JobDivaPublisher {
         if (!contactIds.isEmpty()) {
             Map<String, Integer> atsResult = curatelyRepository.getContactIdsByAtsValues(clientId,
                     new ArrayList<>(contactIds), JOB_DIVA);
-            String entityIds = contactIds.stream()
+            List<String> entityIds = contactIds.stream()
                     .filter(id -> !atsResult.containsKey(id))
-                    .collect(Collectors.joining(","));
+                    .toList();
 
-            ResponseEntity<GenericResponse<List<T>>> response = fetchDetails(entityIds, CONTACTS_DETAIL, clientId);
-            GenericResponse<List<T>> body = response.getBody();
+            ResponseEntity<GenericResponse<List<Contact>>> response = fetchDetails(entityIds, CONTACTS_DETAIL,
+                    clientId, Contact.class);
+            GenericResponse<List<Contact>> body = response.getBody();
             if (CommonUtils.isInvalidResponse(body)) {
                 CommonUtils.handleErrorResponse(CONTACTS_DETAIL, clientId, response);
                 return;
             }
 
-            List<Contact> contacts = (List<Contact>) convertResponse(body, Contact.class);
+            List<Contact> contacts = body.getData();
             Map<String, Contact> contactMap = contacts.stream().collect(Collectors.toMap(
                     Contact::getContactid,
                     contact -> contact
@@ -196,22 +228,14 @@ public class JobDivaPublisher {
 
         log.error("Started enriching {} CandidatesDetail from job diva with resume id for client {}",
                 candidateIds.size(), clientId);
-        List<String> candidateIdsList = candidateIds.stream().toList();
         List<CandidateResume> allCandidateResumes = new ArrayList<>();
-        for (int i = 0; i < candidateIdsList.size(); i += 100) {
-            int end = Math.min(i + 100, candidateIdsList.size());
-            List<String> batch = candidateIdsList.subList(i, end);
-
-            ResponseEntity<GenericResponse<List<T>>> response = fetchDetails(String.join(",", batch),
-                    CANDIDATE_RESUME_DETAIL, clientId);
-            GenericResponse<List<T>> body = response.getBody();
-            if (CommonUtils.isInvalidResponse(body)) {
-                CommonUtils.handleErrorResponse(CANDIDATE_RESUME_DETAIL, clientId, response);
-                return;
-            }
-
-            List<CandidateResume> candidateResumes = (List<CandidateResume>) convertResponse(body, CandidateResume.class);
-            allCandidateResumes.addAll(candidateResumes);
+        ResponseEntity<GenericResponse<Integer>> response = forEachDetail(candidateIds, CANDIDATE_RESUME_DETAIL,
+                clientId, CandidateResume.class, allCandidateResumes::add);
+        GenericResponse<Integer> body = response.getBody();
+        if (body == null || !body.getSuccess() || body.getData() == null) {
+            log.error("Invalid response from Job diva while fetching {}, client {} : {}", CANDIDATE_RESUME_DETAIL,
+                    clientId, response);
+            return;
         }
 
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
@@ -247,20 +271,20 @@ public class JobDivaPublisher {
     }
 
     public <T> Map<String, Job> getJobMap(int clientId, List<Hotlist> hotlistlistList, String entityName) {
-        GenericResponse<List<T>> body;
-        ResponseEntity<GenericResponse<List<T>>> response;
+        GenericResponse<List<Job>> body;
+        ResponseEntity<GenericResponse<List<Job>>> response;
         List<String> jobIds = hotlistlistList.stream()
                 .map(Hotlist::getJobId)
                 .toList();
 
-        response = fetchDetails(String.join(",", jobIds), JOB_DETAIL, clientId);
+        response = fetchDetails(jobIds, JOB_DETAIL, clientId, Job.class);
         body = response.getBody();
         if (CommonUtils.isInvalidResponse(body)) {
             CommonUtils.handleErrorResponse(entityName, clientId, response);
             return Collections.emptyMap();
         }
 
-        List<Job> jobs = (List<Job>) convertResponse(body, Job.class);
+        List<Job> jobs = body.getData();
         enrichJobsWithContactInfo(jobs, clientId);
         enrichJobsWithUsersInfo(jobs, clientId);
         return jobs.stream()
@@ -271,6 +295,51 @@ public class JobDivaPublisher {
         return clientService.getDetails(ids, null, entityName, clientId);
     }
 
+    public <T> ResponseEntity<GenericResponse<List<T>>> fetchDetails(String ids, String entityName, int clientId,
+                                                                     Class<T> modelClass) {
+        return clientService.getDetails(ids, entityName, clientId, modelClass);
+    }
+
+    /**
+     * Fetches the details of the ids in chunks small enough for the query string, merging the chunks.
+     *
+     * @param <T>        the type parameter
+     * @param ids        the ids
+     * @param entityName the entity name
+     * @param clientId   the client id
+     * @param modelClass the model class
+     * @return the details of every chunk, or the response of the first failed chunk
+     */
+    public <T> ResponseEntity<GenericResponse<List<T>>> fetchDetails(Collection<String> ids, String entityName,
+                                                                     int clientId, Class<T> modelClass) {
+        return chunkedFetcher.fetch(ids, entityName, clientId,
+                chunk -> clientService.getDetails(chunk, entityName, clientId, modelClass), ChunkedFetcher::concat);
+    }
+
+    /**
+     * Streams the details of the ids to the consumer in chunks small enough for the query string. The chunks are
+     * fetched concurrently but the consumer is called by one chunk at a time.
+     *
+     * @param <T>        the type parameter
+     * @param ids        the ids
+     * @param entityName the entity name
+     * @param clientId   the client id
+     * @param modelClass the model class
+     * @param consumer   the consumer
+     * @return the number of elements consumed, or the response of the first failed chunk
+     */
+    private <T> ResponseEntity<GenericResponse<Integer>> forEachDetail(Collection<String> ids, String entityName,
+                                                                       int clientId, Class<T> modelClass,
+                                                                       Consumer<? super T> consumer) {
+        Object lock = new Object();
+        return chunkedFetcher.fetch(ids, entityName, clientId,
+                chunk -> clientService.forEachDetail(chunk, entityName, clientId, modelClass, item -> {
+                    synchronized (lock) {
+                        consumer.accept(item);
+                    }
+                }), Integer::sum);
+    }
+
     public <T> List<T> convertResponse(GenericResponse<List<T>> body, Class<?> modelClass) {
         return objectMapper.convertValue(
                 Objects.requireNonNull(body).getData(),
@@ -309,36 +378,48 @@ public class JobDivaPublisher {
         return null;
     }
 
+    private String compressEvent(SnsEvent snsEvent) throws IOException {
+        try {
+            return CompressionUtil.compressJson(objectMapper, snsEvent, eventCodecRegistry.codec(codecName));
+        } catch (JsonProcessingException e) {
+            log.error("Error converting sns event model to compressed json string", e);
+        }
+        return null;
+    }
+
+    private Map<String, MessageAttributeValue> eventMessageAttributes() {
+        Map<String, MessageAttributeValue> eventAttributes = new HashMap<>(messageAttributes);
+        eventAttributes.put(EventCodec.CONTENT_ENCODING_ATTRIBUTE, MessageAttributeValue.builder()
+                .dataType("String")
+                .stringValue(eventCodecRegistry.codec(codecName).contentEncoding())
+                .build());
+        return eventAttributes;
+    }
+
     public <T> Map<String, List<String>> fetchUpdatedCandidateNotes(int clientId, Timestamp fromDate, Date toDate)
             throws DataAccessException {
         Date adjustedDate = adjustFromDate(toDate,fromDate);
         String formattedFromDate = formatDate(adjustedDate);
         String formattedToDate = formatDate(toDate);
 
-        int pageNumber = 1;
         Map<String, List<String>> jobCandidateIdsMap = new HashMap<>();
-        ResponseEntity<GenericResponse<List<T>>> response;
-        GenericResponse<List<T>> body;
-        while (true) {
-            response = clientService.getNewUpdatedCandidateNotes(clientId, formattedFromDate, formattedToDate, pageNumber);
-            body = response.getBody();
-            if (CommonUtils.isInvalidResponse(body)) {
-                CommonUtils.handleErrorResponse("NewUpdatedCandidateNotes", clientId, response);
-                return Collections.emptyMap();
-            }
-
-            if (body.getData().isEmpty()) {
-                log.error("Empty data from Job diva while fetching NewUpdatedCandidateNotes, client {} : {}", clientId,
-                        response);
-                break;
-            }
-
-            List<CandidateNote> candidateNotes = (List<CandidateNote>) convertResponse(body, CandidateNote.class);
-            candidateNotes.stream()
-                .filter(candidateNote -> StringUtils.isNotEmpty(candidateNote.getJobId()))
-                .forEach(candidateNote -> jobCandidateIdsMap.computeIfAbsent(candidateNote.getJobId(), k -> new ArrayList<>())
-                    .add(candidateNote.getCandidateId()));
-            pageNumber++;
+        ResponseEntity<GenericResponse<List<T>>> response = pagedFetcher.fetchPages("NewUpdatedCandidateNotes",
+                clientId, 1, pageNumber -> clientService.getNewUpdatedCandidateNotes(clientId, formattedFromDate,
+                        formattedToDate, pageNumber), page -> {
+                    List<CandidateNote> candidateNotes = objectMapper.convertValue(page,
+                            objectMapper.getTypeFactory().constructCollectionType(List.class, CandidateNote.class));
+                    eligibilityCache.invalidate(clientId, candidateNotes.stream()
+                            .map(CandidateNote::getCandidateId)
+                            .filter(Objects::nonNull)
+                            .toList());
+                    candidateNotes.stream()
+                        .filter(candidateNote -> StringUtils.isNotEmpty(candidateNote.getJobId()))
+                        .forEach(candidateNote -> jobCandidateIdsMap.computeIfAbsent(candidateNote.getJobId(), k -> new ArrayList<>())
+                            .add(candidateNote.getCandidateId()));
+                });
+        if (CommonUtils.isInvalidResponse(response.getBody())) {
+            CommonUtils.handleErrorResponse("NewUpdatedCandidateNotes", clientId, response);
+            return null;
         }
         return jobCandidateIdsMap;
     }
@@ -356,7 +437,14 @@ public class JobDivaPublisher {
     }
 
 
-    private Timestamp adjustFromDate(Date toDate, Timestamp fromDate) {
+    /**
+     * Caps the from date to 14 days before the to date.
+     *
+     * @param toDate   the to date
+     * @param fromDate the from date
+     * @return the from date, at most 14 days before the to date
+     */
+    public Timestamp adjustFromDate(Date toDate, Timestamp fromDate) {
         Calendar fromDateCal = Calendar.getInstance();
         fromDateCal.setTime(fromDate);
 
@@ -388,10 +476,9 @@ public class JobDivaPublisher {
         String dataString = convertModelToString(applicants);
 
         SnsEvent snsEvent = buildSnsEvent(entityName, entityId, clientId, dataString, recruiterId, "Delete");
-        String message = convertModelToString(snsEvent);
-        if (message != null) {
-            String base64EncodedString = CompressionUtil.compress(message);
-            Map<String, MessageAttributeValue> localMessageAttributes = new HashMap<>(messageAttributes);
+        String base64EncodedString = compressEvent(snsEvent);
+        if (base64EncodedString != null) {
+            Map<String, MessageAttributeValue> localMessageAttributes = eventMessageAttributes();
             localMessageAttributes.put("actionType", MessageAttributeValue.builder()
                     .dataType("String")
                     .stringValue("deleteCandidatesFromCase")
@@ -415,13 +502,12 @@ public class JobDivaPublisher {
 
         SnsEvent snsEvent = buildSnsEvent("Job", job.getId(), clientId, dataString, recruiterId,
                 "Update");
-        String message = convertModelToString(snsEvent);
-        if (message != null) {
-            String base64EncodedString = CompressionUtil.compress(message);
+        String base64EncodedString = compressEvent(snsEvent);
+        if (base64EncodedString != null) {
             return PublishBatchRequestEntry.builder()
                     .message(base64EncodedString)
                     .id(UUID.randomUUID().toString())
-                    .messageAttributes(messageAttributes)
+                    .messageAttributes(eventMessageAttributes())
                     .build();
         }
         log.error("Sns message is null for Job Detail {} from JobDiva for client {}", job.getId(), clientId);
@@ -441,19 +527,21 @@ public class JobDivaPublisher {
             return Collections.emptyMap();
         }
 
-        String existingJobIds = String.join(",", resultMap.values());
-        ResponseEntity<GenericResponse<List<T>>> response = fetchDetails(existingJobIds, JOB_APPLICANT_DETAIL,
-                clientId);
-        GenericResponse<List<T>> body = response.getBody();
-
-        if (CommonUtils.isInvalidResponse(body)) {
-            CommonUtils.handleErrorResponse(JOB_APPLICANT_DETAIL, clientId, response);
+        prefetchJobDetails(clientId, resultMap.values());
+        Map<String, Set<JobApplicant>> groupedApplicants = new HashMap<>();
+        ResponseEntity<GenericResponse<Integer>> response = forEachDetail(resultMap.values(),
+                JOB_APPLICANT_DETAIL, clientId, JobApplicant.class, applicant -> groupedApplicants
+                        .computeIfAbsent(applicant.getJobId(), jobId -> new TreeSet<>(
+                                Comparator.comparing(JobApplicant::getCandidateId)))
+                        .add(applicant));
+        GenericResponse<Integer> body = response.getBody();
+
+        if (body == null || !body.getSuccess() || body.getData() == null) {
+            log.error("Invalid response from Job diva while fetching {}, client {} : {}", JOB_APPLICANT_DETAIL,
+                    clientId, response);
             return Collections.emptyMap();
         }
 
-        List<JobApplicant> applicants = (List<JobApplicant>) convertResponse(body, JobApplicant.class);
-        Map<String, Set<JobApplicant>> groupedApplicants = groupByJobId(applicants);
-
         List<String> atsValues = groupedApplicants.entrySet().stream()
                 .flatMap(entry -> entry.getValue().stream()
                         .map(applicant -> entry.getKey() + "-" + applicant.getCandidateId()))
@@ -462,22 +550,28 @@ public class JobDivaPublisher {
         List<String> existingAtsValues = atsValues.isEmpty()
                 ? Collections.emptyList()
                 : curatelyRepository.findExistingAtsValues(clientId, atsValues);
-        return groupedApplicants.entrySet().stream()
+        Map<String, Set<JobApplicant>> newApplicants = groupedApplicants.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().stream()
+                        .filter(applicant -> !existingAtsValues.contains(entry.getKey() + "-" + applicant.getCandidateId()))
+                        .collect(Collectors.toSet())))
+                .filter(entry -> !entry.getValue().isEmpty())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        if (newApplicants.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, Set<String>> candidateIdsByJob = newApplicants.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().stream()
+                        .map(JobApplicant::getCandidateId)
+                        .collect(Collectors.toSet())));
+        Map<String, List<String>> filteredCandidatesByJob = filterCandidates(candidateIdsByJob, clientId);
+        return newApplicants.entrySet().stream()
                 .map(entry -> {
-                    String jobId = entry.getKey();
-                    Set<JobApplicant> filteredApplicants = entry.getValue().stream()
-                            .filter(applicant -> !existingAtsValues.contains(jobId + "-" + applicant.getCandidateId()))
-                            .collect(Collectors.toSet());
-                    if (!filteredApplicants.isEmpty()) {
-                        Set<String> candidateIds = filteredApplicants.stream()
-                                .map(JobApplicant::getCandidateId)
-                                .collect(Collectors.toSet());
-                        List<String> filteredCandidates = filterCandidates(candidateIds, jobId, clientId);
-                        filteredApplicants = filteredApplicants.stream()
-                                .filter(applicant -> filteredCandidates.contains(applicant.getCandidateId()))
-                                .collect(Collectors.toSet());
-                    }
-                    return Map.entry(jobId, filteredApplicants);
+                    Set<String> filteredCandidates = new HashSet<>(
+                            filteredCandidatesByJob.getOrDefault(entry.getKey(), Collections.emptyList()));
+                    return Map.entry(entry.getKey(), entry.getValue().stream()
+                            .filter(applicant -> filteredCandidates.contains(applicant.getCandidateId()))
+                            .collect(Collectors.toSet()));
                 })
                 .filter(entry -> !entry.getValue().isEmpty())
                 .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
@@ -505,15 +599,15 @@ public class JobDivaPublisher {
             return Collections.emptyList();
         }
 
-        ResponseEntity<GenericResponse<List<T>>> response = fetchDetails(String.join(",", sourcedIds),
-                CANDIDATE_DETAIL, clientId);
-        GenericResponse<List<T>> body = response.getBody();
+        ResponseEntity<GenericResponse<List<Candidate>>> response = detailsCoalescer.getDetails(sourcedIds,
+                CANDIDATE_DETAIL, clientId, Candidate.class, Candidate::getCandidateid);
+        GenericResponse<List<Candidate>> body = response.getBody();
         if (CommonUtils.isInvalidResponse(body)) {
             CommonUtils.handleErrorResponse(CANDIDATE_DETAIL, clientId, response);
             return Collections.emptyList();
         }
 
-        List<Candidate> candidates = (List<Candidate>) convertResponse(body, Candidate.class);
+        List<Candidate> candidates = body.getData();
         enrichCandidatesWithResume(candidates, new HashSet<>(sourcedIds), clientId);
         return candidates;
     }
@@ -523,17 +617,18 @@ public class JobDivaPublisher {
     public <T> void enrichJobsWithUsersInfo(List<Job> jobs, int clientId) {
         log.info("Started enriching {} JobsDetail from job diva with users info for client {}", jobs.size(),
                 clientId);
-        String entityIds = jobs.stream()
+        List<String> entityIds = jobs.stream()
                 .map(Job::getId)
-                .collect(Collectors.joining(","));
-        ResponseEntity<GenericResponse<List<T>>> response = fetchDetails(entityIds, JOBS_USERS_DETAIL, clientId);
-        GenericResponse<List<T>> body = response.getBody();
+                .toList();
+        ResponseEntity<GenericResponse<List<Job.User>>> response = fetchDetails(entityIds, JOBS_USERS_DETAIL, clientId,
+                Job.User.class);
+        GenericResponse<List<Job.User>> body = response.getBody();
         if (CommonUtils.isInvalidResponse(body)) {
             CommonUtils.handleErrorResponse(JOBS_USERS_DETAIL, clientId, response);
             return;
         }
 
-        List<Job.User> users = (List<Job.User>) convertResponse(body, Job.User.class);
+        List<Job.User> users = body.getData();
         Map<String, List<Job.User>> usersByJobId = users.stream()
                 .collect(Collectors.groupingBy(Job.User::getJobId));
         jobs.forEach(job -> {
@@ -541,88 +636,217 @@ public class JobDivaPublisher {
         });
     }
 
-    private <T> List<String> getCandidatesWithNotesOnJob(Set<String> candidateIds, String jobId, int clientId) {
-        ResponseEntity<GenericResponse<CandidateNotesListResponse>> notesResponse = clientService.getCandidateNotesList(clientId, String.join(",", candidateIds));
-        GenericResponse<CandidateNotesListResponse> notesBody = notesResponse.getBody();
+    private Map<String, List<CandidateNote>> getCandidateNotes(Set<String> candidateIds, int clientId) {
+        Map<String, List<CandidateNote>> notes = eligibilityCache.getAll(Kind.NOTES, clientId, candidateIds,
+                missingIds -> {
+                    ResponseEntity<GenericResponse<CandidateNotesListResponse>> notesResponse = chunkedFetcher.fetch(
+                            missingIds, "candidate notes list", clientId,
+                            chunk -> clientService.getCandidateNotesList(clientId, chunk), JobDivaPublisher::mergeNotes);
+                    GenericResponse<CandidateNotesListResponse> notesBody = notesResponse.getBody();
+
+                    if (notesBody == null || !notesBody.getSuccess() || notesBody.getData() == null
+                            || notesBody.getData().getData() == null) {
+                        return null;
+                    }
+                    return notesBody.getData().getData();
+                });
+        return notes == null ? Collections.emptyMap() : notes;
+    }
 
-        if (notesBody == null || !notesBody.getSuccess() || notesBody.getData() == null) {
-            return Collections.emptyList();
-        }
+    private <T> Map<String, List<T>> getCandidatesData(Kind kind, Set<String> candidateIds, String entityName,
+                                                       int clientId, Class<T> modelClass,
+                                                       Function<T, String> candidateIdOf) {
+        return eligibilityCache.getAll(kind, clientId, candidateIds, missingIds -> {
+            ResponseEntity<GenericResponse<List<T>>> response = fetchDetails(missingIds, entityName, clientId,
+                    modelClass);
+            GenericResponse<List<T>> body = response.getBody();
+            if (CommonUtils.isInvalidResponse(body)) {
+                CommonUtils.handleErrorResponse(entityName, clientId, response);
+                return null;
+            }
+            return body.getData().stream()
+                    .filter(element -> candidateIdOf.apply(element) != null)
+                    .collect(Collectors.groupingBy(candidateIdOf));
+        });
+    }
 
-        Map<String, List<CandidateNote>> data = notesBody.getData().getData();
-        return data.keySet().stream()
-                .filter(candidateId -> {
-                    return data.get(candidateId).stream()
-                            .anyMatch(note -> note.getJobId().equals(jobId));
-                })
-                .distinct()
+    private static List<String> getCandidatesWithNotesOnJob(Map<String, List<CandidateNote>> notes,
+                                                            Set<String> candidateIds, String jobId) {
+        return candidateIds.stream()
+                .filter(candidateId -> notes.getOrDefault(candidateId, Collections.emptyList()).stream()
+                        .anyMatch(note -> jobId.equals(note.getJobId())))
                 .collect(Collectors.toList());
     }
 
-    public <T> List<String> filterCandidates(Set<String> candidateIds, String jobId, int clientId) {
-        List<String> candidatesWithNotes = getCandidatesWithNotesOnJob(candidateIds, jobId, clientId);
-        if (!candidatesWithNotes.isEmpty()) {
-            log.info("Found {} candidates with notes for job {}", candidatesWithNotes.size(), jobId);
-        } else {
-            log.info("No candidates with notes found for job {}, client {}", jobId, clientId);
-        }
-        Set<String> candidatesToProcess = new HashSet<>(candidateIds);
-        candidatesToProcess.removeAll(candidatesWithNotes);
+    private static CandidateNotesListResponse mergeNotes(CandidateNotesListResponse left,
+                                                         CandidateNotesListResponse right) {
+        Map<String, List<CandidateNote>> data = new HashMap<>();
+        Optional.ofNullable(left.getData()).ifPresent(data::putAll);
+        Optional.ofNullable(right.getData()).ifPresent(data::putAll);
+        return CandidateNotesListResponse.builder()
+                .message(left.getMessage())
+                .data(data)
+                .build();
+    }
 
-        ResponseEntity<GenericResponse<List<T>>> submittalsResponse = clientService.getDetails(
-                StringUtils.join(candidatesToProcess, ","), null, CANDIDATES_SUBMITTALS_DETAIL, clientId);
-        ResponseEntity<GenericResponse<List<T>>> dnsResponse = clientService.getDetails(
-                StringUtils.join(candidatesToProcess, ","), null,
-                CANDIDATES_DO_NOT_SUBMIT_LIST_DETAIL, clientId);
+    public <T> List<String> filterCandidates(Set<String> candidateIds, String jobId, int clientId) {
+        return filterCandidates(Map.of(jobId, candidateIds), clientId).getOrDefault(jobId, Collections.emptyList());
+    }
 
-        GenericResponse<List<T>> submittalsBody = submittalsResponse.getBody();
-        GenericResponse<List<T>> dnsBody = dnsResponse.getBody();
+    /**
+     * Filters the candidates of several jobs in one pass. The notes, submittals and do not submit lists are fetched
+     * once for the union of the candidates and the job details in bulk, then each job is filtered in memory the
+     * same way a single job is.
+     *
+     * @param candidateIdsByJob the candidate ids by job id
+     * @param clientId          the client id
+     * @return the candidate ids to process by job id, empty when the submittals or do not submit lists failed
+     */
+    public Map<String, List<String>> filterCandidates(Map<String, Set<String>> candidateIdsByJob, int clientId) {
+        Set<String> allCandidateIds = candidateIdsByJob.values().stream()
+                .flatMap(Set::stream)
+                .collect(Collectors.toSet());
+        Map<String, List<CandidateNote>> notes = getCandidateNotes(allCandidateIds, clientId);
+
+        Map<String, Set<String>> candidatesToProcessByJob = new HashMap<>();
+        candidateIdsByJob.forEach((jobId, candidateIds) -> {
+            List<String> candidatesWithNotes = getCandidatesWithNotesOnJob(notes, candidateIds, jobId);
+            if (!candidatesWithNotes.isEmpty()) {
+                log.info("Found {} candidates with notes for job {}", candidatesWithNotes.size(), jobId);
+            } else {
+                log.info("No candidates with notes found for job {}, client {}", jobId, clientId);
+            }
+            Set<String> candidatesToProcess = new HashSet<>(candidateIds);
+            candidatesWithNotes.forEach(candidatesToProcess::remove);
+            candidatesToProcessByJob.put(jobId, candidatesToProcess);
+        });
+        Set<String> allCandidatesToProcess = candidatesToProcessByJob.values().stream()
+                .flatMap(Set::stream)
+                .collect(Collectors.toSet());
 
-        if (CommonUtils.isInvalidResponse(submittalsBody) || CommonUtils.isInvalidResponse(dnsBody)) {
-            CommonUtils.handleErrorResponse(CANDIDATES_SUBMITTALS_DETAIL, clientId, submittalsResponse);
-            CommonUtils.handleErrorResponse(CANDIDATES_DO_NOT_SUBMIT_LIST_DETAIL, clientId, dnsResponse);
-            return Collections.emptyList();
+        Map<String, List<CandidateSubmittal>> submittalsByCandidate = getCandidatesData(Kind.SUBMITTALS,
+                allCandidatesToProcess, CANDIDATES_SUBMITTALS_DETAIL, clientId, CandidateSubmittal.class,
+                CandidateSubmittal::getCandidateId);
+        Map<String, List<DoNotSubmit>> dnsByCandidate = getCandidatesData(Kind.DO_NOT_SUBMIT,
+                allCandidatesToProcess, CANDIDATES_DO_NOT_SUBMIT_LIST_DETAIL, clientId, DoNotSubmit.class,
+                DoNotSubmit::getCandidateId);
+        if (submittalsByCandidate == null || dnsByCandidate == null) {
+            return Collections.emptyMap();
         }
 
-        List<CandidateSubmittal> candidatesSubmittals = (List<CandidateSubmittal>) convertResponse(submittalsBody,
-                CandidateSubmittal.class);
-        List<DoNotSubmit> doNotSubmits = (List<DoNotSubmit>) convertResponse(dnsBody, DoNotSubmit.class);
+        Map<String, List<String>> candidateDnsMap = dnsByCandidate.entrySet().stream()
+                .filter(entry -> !entry.getValue().isEmpty())
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().stream()
+                        .map(DoNotSubmit::getCompanyId)
+                        .toList()));
+        prefetchJobDetails(clientId, candidateIdsByJob.keySet());
+
+        Map<String, List<String>> filteredByJob = new HashMap<>();
+        candidateIdsByJob.forEach((jobId, candidateIds) -> {
+            Job currentJob = getJobDetail(clientId, jobId);
+            if (currentJob == null) {
+                filteredByJob.put(jobId, Collections.emptyList());
+                return;
+            }
+            String currentCompanyId = currentJob.getCompanyId();
+            Set<String> candidatesToProcess = candidatesToProcessByJob.get(jobId);
+
+            Set<String> candidatesSubmittedAndActive = candidatesToProcess.stream()
+                    .filter(candidateId -> submittalsByCandidate.getOrDefault(candidateId, Collections.emptyList())
+                            .stream()
+                            .anyMatch(candidateSubmittal -> candidateSubmittal.getJobId().equalsIgnoreCase(jobId)
+                                    || isActiveCandidate(candidateSubmittal)))
+                    .collect(Collectors.toSet());
+            log.info("Candidates submitted and active: {}, jobId: {}, clientId: {}", candidatesSubmittedAndActive,
+                    jobId, clientId);
+
+            filteredByJob.put(jobId, candidateIds.stream()
+                    .filter(candidateId -> !candidatesSubmittedAndActive.contains(candidateId))
+                    .filter(candidateId -> {
+                        List<String> dnsList = candidatesToProcess.contains(candidateId)
+                                ? candidateDnsMap.get(candidateId) : null;
+                        boolean isValid = dnsList == null || (!dnsList.contains("0") && !dnsList.contains(currentCompanyId));
+                        if (!isValid) {
+                            log.info("Candidate {} filtered out due to DNS list containing 0 or company ID {}", candidateId, currentCompanyId);
+                        }
+                        return isValid;
+                    })
+                    .toList());
+        });
+        return filteredByJob;
+    }
 
-        Set<String> candidatesSubmittedAndActive = candidatesSubmittals.parallelStream()
-                .filter(candidateSubmittal -> candidateSubmittal.getJobId().equalsIgnoreCase(jobId)
-                        || isActiveCandidate(candidateSubmittal))
-                .map(CandidateSubmittal::getCandidateId)
-                .collect(Collectors.toSet());
-        log.info("Candidates submitted and active: {}, jobId: {}, clientId: {}", candidatesSubmittedAndActive, jobId, clientId);
+    /**
+     * Fetches the details of the jobs in bulk, so the filter candidates calls of the run read them instead of
+     * fetching each job again. Jobs fetched within the job detail ttl are not fetched again.
+     *
+     * @param clientId the client id
+     * @param jobIds   the job ids
+     */
+    public void prefetchJobDetails(int clientId, Collection<String> jobIds) {
+        long now = System.currentTimeMillis();
+        jobDetails.values().removeIf(entry -> entry.isExpired(now));
+        List<String> missingJobIds = jobIds.stream()
+                .filter(jobId -> !jobDetails.containsKey(jobDetailKey(clientId, jobId)))
+                .distinct()
+                .toList();
+        if (missingJobIds.isEmpty()) {
+            return;
+        }
 
-        Map<String, List<String>> candidateDnsMap = doNotSubmits.parallelStream()
-                .collect(Collectors.groupingBy(
-                        DoNotSubmit::getCandidateId,
-                        Collectors.mapping(DoNotSubmit::getCompanyId, Collectors.toList())
-                ));
+        ResponseEntity<GenericResponse<List<Job>>> response = fetchDetails(missingJobIds, JOB_DETAIL, clientId,
+                Job.class);
+        GenericResponse<List<Job>> body = response.getBody();
+        if (CommonUtils.isInvalidResponse(body)) {
+            // the jobs are fetched one by one by filter candidates instead
+            CommonUtils.handleErrorResponse(JOB_DETAIL, clientId, response);
+            return;
+        }
+        long expiresAt = now + TimeUnit.SECONDS.toMillis(jobDetailTtlSeconds);
+        body.getData().forEach(job -> jobDetails.putIfAbsent(jobDetailKey(clientId, job.getId()),
+                new JobDetailEntry(CompletableFuture.completedFuture(job), expiresAt)));
+        log.info("Prefetched {} JobsDetail of {} jobs for client {}", body.getData().size(), missingJobIds.size(),
+                clientId);
+    }
 
-        ResponseEntity<GenericResponse<List<T>>> jobResponse = fetchDetails(jobId, JOB_DETAIL, clientId);
-        GenericResponse<List<T>> jobBody = jobResponse.getBody();
+    private Job getJobDetail(int clientId, String jobId) {
+        String key = jobDetailKey(clientId, jobId);
+        long now = System.currentTimeMillis();
+        CompletableFuture<Job> fetching = new CompletableFuture<>();
+        JobDetailEntry entry = jobDetails.compute(key, (k, current) -> current == null || current.isExpired(now)
+                ? new JobDetailEntry(fetching, now + TimeUnit.SECONDS.toMillis(jobDetailTtlSeconds))
+                : current);
+        if (entry.job() != fetching) {
+            return entry.job().join();
+        }
 
-        if (CommonUtils.isInvalidResponse(jobBody)) {
-            CommonUtils.handleErrorResponse(JOB_DETAIL, clientId, jobResponse);
-            return Collections.emptyList();
+        // concurrent callers of the same job wait on this fetch instead of making their own
+        Job job = null;
+        try {
+            ResponseEntity<GenericResponse<List<Job>>> response = fetchDetails(jobId, JOB_DETAIL, clientId, Job.class);
+            GenericResponse<List<Job>> body = response.getBody();
+            if (CommonUtils.isInvalidResponse(body) || body.getData().isEmpty()) {
+                CommonUtils.handleErrorResponse(JOB_DETAIL, clientId, response);
+            } else {
+                job = body.getData().get(0);
+            }
+        } finally {
+            if (job == null) {
+                jobDetails.remove(key, entry);
+            }
+            fetching.complete(job);
         }
+        return job;
+    }
 
-        List<Job> jobs = (List<Job>) convertResponse(jobBody, Job.class);
-        String currentCompanyId = jobs.get(0).getCompanyId();
+    private static String jobDetailKey(int clientId, String jobId) {
+        return clientId + "-" + jobId;
+    }
 
-        return candidateIds.parallelStream()
-                .filter(candidateId -> !candidatesSubmittedAndActive.contains(candidateId))
-                .filter(candidateId -> {
-                    List<String> dnsList = candidateDnsMap.get(candidateId);
-                    boolean isValid = dnsList == null || (!dnsList.contains("0") && !dnsList.contains(currentCompanyId));
-                    if (!isValid) {
-                        log.info("Candidate {} filtered out due to DNS list containing 0 or company ID {}", candidateId, currentCompanyId);
-                    }
-                    return isValid;
-                })
-                .toList();
+    private record JobDetailEntry(CompletableFuture<Job> job, long expiresAt) {
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
     }
 
     private boolean isActiveCandidate(CandidateSubmittal candidateSubmittal) {
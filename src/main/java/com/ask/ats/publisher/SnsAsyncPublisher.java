@@ -0,0 +1,287 @@
+package com.ask.ats.publisher;
+
+import com.ask.ats.model.SnsPublishResult;
+import com.ask.ats.service.DownstreamLimiter;
+import com.ask.ats.service.DownstreamLimiter.Downstream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequest;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchResponse;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking sns publisher that keeps a bounded number of publish batch calls in flight per topic and
+ * re-queues only the entries sns reports as failed. Each publish batch call holds a sns permit of the
+ * {@link DownstreamLimiter} only while it is in flight, never during the backoff before a retry.
+ */
+@Slf4j
+@Service
+public class SnsAsyncPublisher {
+
+    private static final Set<String> THROTTLING_CODES = Set.of("Throttling", "ThrottlingException",
+            "ThrottledException", "Throttled", "RequestThrottled", "TooManyRequestsException",
+            "KMSThrottling", "KMSThrottlingException");
+
+    private static final Set<String> TRANSIENT_CODES = Set.of("InternalError", "InternalFailure",
+            "ServiceUnavailable", "KMSInternal", "KMSInternalException");
+
+    @Value("${aws.sns.async.maxInFlightPerTopic}")
+    private int maxInFlightPerTopic;
+
+    @Value("${aws.sns.retry.maxAttempts}")
+    private int maxAttempts;
+
+    @Value("${aws.sns.retry.baseDelayMillis}")
+    private long baseDelayMillis;
+
+    @Value("${aws.sns.retry.throttleBaseDelayMillis}")
+    private long throttleBaseDelayMillis;
+
+    @Value("${aws.sns.retry.maxDelayMillis}")
+    private long maxDelayMillis;
+
+    private final SnsAsyncClient snsAsyncClient;
+    private final SnsBatchPacker snsBatchPacker;
+    private final MeterRegistry meterRegistry;
+    private final DownstreamLimiter downstreamLimiter;
+    private final Map<String, TopicLane> topicLanes = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Sns async publisher.
+     *
+     * @param snsAsyncClient    the sns async client
+     * @param snsBatchPacker    the sns batch packer
+     * @param meterRegistry     the meter registry
+     * @param downstreamLimiter the downstream limiter
+     */
+    public SnsAsyncPublisher(SnsAsyncClient snsAsyncClient, SnsBatchPacker snsBatchPacker,
+                             MeterRegistry meterRegistry, DownstreamLimiter downstreamLimiter) {
+        this.snsAsyncClient = snsAsyncClient;
+        this.snsBatchPacker = snsBatchPacker;
+        this.meterRegistry = meterRegistry;
+        this.downstreamLimiter = downstreamLimiter;
+    }
+
+    /**
+     * Publishes the entries to the topic in size-aware batches, pipelining up to the configured number of batches
+     * per topic. Failed entries are retried with jittered exponential backoff until they succeed or run out of
+     * attempts.
+     *
+     * @param topicArn the topic arn
+     * @param entries  the entries
+     * @return the future completed with the per entry outcome once every batch has settled
+     */
+    public CompletableFuture<SnsPublishResult> publish(String topicArn, List<PublishBatchRequestEntry> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return CompletableFuture.completedFuture(SnsPublishResult.empty());
+        }
+
+        TopicLane lane = topicLanes.computeIfAbsent(topicArn, TopicLane::new);
+        List<CompletableFuture<SnsPublishResult>> batches = new ArrayList<>();
+        for (List<PublishBatchRequestEntry> batch : snsBatchPacker.pack(entries)) {
+            batches.add(publishWithRetry(lane, batch, 1));
+        }
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> batches.stream()
+                        .map(CompletableFuture::join)
+                        .reduce(SnsPublishResult.empty(), SnsPublishResult::merge))
+                .whenComplete((result, ex) -> {
+                    if (result != null && !result.isComplete()) {
+                        log.error("Dropped {} of {} entries while publishing to sns topic {}", result.getDropped(),
+                                entries.size(), topicArn);
+                    }
+                });
+    }
+
+    /**
+     * Number of publish batch calls currently in flight for the topic.
+     *
+     * @param topicArn the topic arn
+     * @return the in flight count
+     */
+    public int inFlight(String topicArn) {
+        TopicLane lane = topicLanes.get(topicArn);
+        return lane == null ? 0 : lane.inFlight.get();
+    }
+
+    private CompletableFuture<SnsPublishResult> publishWithRetry(TopicLane lane,
+                                                                 List<PublishBatchRequestEntry> entries,
+                                                                 int attempt) {
+        return lane.submit(entries)
+                .handle((response, ex) -> ex == null
+                        ? onResponse(lane, entries, response, attempt)
+                        : onFailure(lane, entries, ex, attempt))
+                .thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<SnsPublishResult> onResponse(TopicLane lane, List<PublishBatchRequestEntry> entries,
+                                                           PublishBatchResponse response, int attempt) {
+        int published = response.successful().size();
+        lane.published.increment(published);
+        log.info("Published message successfully: {}", response.successful());
+        if (!response.hasFailed() || response.failed().isEmpty()) {
+            return CompletableFuture.completedFuture(
+                    new SnsPublishResult(published, 0, 0, Collections.emptyList()));
+        }
+
+        Map<String, PublishBatchRequestEntry> entriesById = entries.stream()
+                .collect(Collectors.toMap(PublishBatchRequestEntry::id, Function.identity()));
+        List<PublishBatchRequestEntry> retryEntries = new ArrayList<>();
+        boolean throttled = false;
+        List<String> droppedIds = new ArrayList<>();
+        for (BatchResultErrorEntry failed : response.failed()) {
+            PublishBatchRequestEntry entry = entriesById.get(failed.id());
+            boolean isThrottled = THROTTLING_CODES.contains(failed.code());
+            boolean isRetryable = isThrottled || TRANSIENT_CODES.contains(failed.code())
+                    || !Boolean.TRUE.equals(failed.senderFault());
+            if (entry != null && isRetryable && attempt < maxAttempts) {
+                retryEntries.add(entry);
+                throttled |= isThrottled;
+            } else {
+                droppedIds.add(failed.id());
+                log.error("Dropping entry {} for sns topic {} after attempt {}: {} - {}", failed.id(), lane.topicArn,
+                        attempt, failed.code(), failed.message());
+            }
+        }
+        lane.dropped.increment(droppedIds.size());
+
+        SnsPublishResult current = new SnsPublishResult(published, retryEntries.size(), droppedIds.size(),
+                droppedIds);
+        if (retryEntries.isEmpty()) {
+            return CompletableFuture.completedFuture(current);
+        }
+        return retryLater(lane, retryEntries, attempt, throttled).thenApply(current::merge);
+    }
+
+    private CompletableFuture<SnsPublishResult> onFailure(TopicLane lane, List<PublishBatchRequestEntry> entries,
+                                                          Throwable ex, int attempt) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        boolean throttled = cause instanceof AwsServiceException serviceException
+                && (serviceException.isThrottlingException() || (serviceException.awsErrorDetails() != null
+                && THROTTLING_CODES.contains(serviceException.awsErrorDetails().errorCode())));
+        boolean retryable = throttled || (cause instanceof SdkException sdkException && sdkException.retryable());
+        if (retryable && attempt < maxAttempts) {
+            log.warn("Retrying batch of {} entries for sns topic {} after attempt {}: {}", entries.size(),
+                    lane.topicArn, attempt, cause.getMessage());
+            SnsPublishResult current = new SnsPublishResult(0, entries.size(), 0, Collections.emptyList());
+            return retryLater(lane, entries, attempt, throttled).thenApply(current::merge);
+        }
+
+        log.error("Dropping batch of {} entries for sns topic {} after attempt {}", entries.size(), lane.topicArn,
+                attempt, cause);
+        lane.dropped.increment(entries.size());
+        List<String> droppedIds = entries.stream().map(PublishBatchRequestEntry::id).toList();
+        return CompletableFuture.completedFuture(new SnsPublishResult(0, 0, entries.size(), droppedIds));
+    }
+
+    private CompletableFuture<SnsPublishResult> retryLater(TopicLane lane, List<PublishBatchRequestEntry> entries,
+                                                           int attempt, boolean throttled) {
+        lane.retried.increment(entries.size());
+        long delay = backoffMillis(attempt, throttled);
+        return CompletableFuture.supplyAsync(() -> publishWithRetry(lane, entries, attempt + 1),
+                        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                .thenCompose(Function.identity());
+    }
+
+    private long backoffMillis(int attempt, boolean throttled) {
+        long base = throttled ? throttleBaseDelayMillis : baseDelayMillis;
+        long ceiling = Math.min(maxDelayMillis, base << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    private static String topicName(String topicArn) {
+        return topicArn.substring(topicArn.lastIndexOf(':') + 1);
+    }
+
+    private record PendingBatch(List<PublishBatchRequestEntry> entries,
+                                CompletableFuture<PublishBatchResponse> future) {
+    }
+
+    private final class TopicLane {
+        private final String topicArn;
+        private final Queue<PendingBatch> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Counter published;
+        private final Counter retried;
+        private final Counter dropped;
+
+        private TopicLane(String topicArn) {
+            this.topicArn = topicArn;
+            this.published = entryCounter(topicArn, "success");
+            this.retried = entryCounter(topicArn, "retry");
+            this.dropped = entryCounter(topicArn, "drop");
+        }
+
+        private Counter entryCounter(String topicArn, String outcome) {
+            return Counter.builder("ats.sns.publish.entries")
+                    .tag("topic", topicName(topicArn))
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+
+        private CompletableFuture<PublishBatchResponse> submit(List<PublishBatchRequestEntry> entries) {
+            PendingBatch batch = new PendingBatch(entries, new CompletableFuture<>());
+            pending.add(batch);
+            dispatch();
+            return batch.future();
+        }
+
+        private void dispatch() {
+            while (!pending.isEmpty()) {
+                int current = inFlight.get();
+                if (current >= maxInFlightPerTopic) {
+                    return;
+                }
+                if (!inFlight.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+                PendingBatch next = pending.poll();
+                if (next == null) {
+                    inFlight.decrementAndGet();
+                    continue;
+                }
+                send(next);
+            }
+        }
+
+        private void send(PendingBatch batch) {
+            PublishBatchRequest publishRequest = PublishBatchRequest.builder()
+                    .topicArn(topicArn)
+                    .publishBatchRequestEntries(batch.entries())
+                    .build();
+            downstreamLimiter.callAsync(Downstream.SNS, () -> snsAsyncClient.publishBatch(publishRequest))
+                    .whenComplete((response, ex) -> {
+                        inFlight.decrementAndGet();
+                        if (ex != null) {
+                            batch.future().completeExceptionally(ex);
+                        } else {
+                            batch.future().complete(response);
+                        }
+                        dispatch();
+                    });
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.ask.ats.publisher;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Packs publish batch entries into the fewest sns batches that respect both the entry count and the total
+ * request size limit, message attributes included.
+ */
+@Slf4j
+@Component
+public class SnsBatchPacker {
+
+    /**
+     * Maximum number of entries sns accepts in a single publish batch request.
+     */
+    public static final int MAX_BATCH_ENTRIES = 10;
+
+    @Value("${aws.sns.batch.maxBytes}")
+    private int maxBatchBytes;
+
+    /**
+     * Packs the entries using first fit decreasing on their payload size. Entries that exceed the size limit on
+     * their own are split out into single entry batches.
+     *
+     * @param entries the entries
+     * @return the batches
+     */
+    public List<List<PublishBatchRequestEntry>> pack(List<PublishBatchRequestEntry> entries) {
+        List<List<PublishBatchRequestEntry>> batches = new ArrayList<>();
+        if (entries == null || entries.isEmpty()) {
+            return batches;
+        }
+
+        List<SizedEntry> sizedEntries = entries.stream()
+                .map(entry -> new SizedEntry(entry, entrySize(entry)))
+                .sorted(Comparator.comparingInt(SizedEntry::size).reversed())
+                .toList();
+
+        List<Integer> batchBytes = new ArrayList<>();
+        for (SizedEntry sizedEntry : sizedEntries) {
+            if (sizedEntry.size() > maxBatchBytes) {
+                log.warn("Sns entry {} of {} bytes exceeds the {} bytes batch limit, publishing it on its own",
+                        sizedEntry.entry().id(), sizedEntry.size(), maxBatchBytes);
+                batches.add(new ArrayList<>(List.of(sizedEntry.entry())));
+                batchBytes.add(sizedEntry.size());
+                continue;
+            }
+
+            boolean placed = false;
+            for (int i = 0; i < batches.size(); i++) {
+                List<PublishBatchRequestEntry> batch = batches.get(i);
+                int bytes = batchBytes.get(i);
+                if (batch.size() < MAX_BATCH_ENTRIES && bytes + sizedEntry.size() <= maxBatchBytes) {
+                    batch.add(sizedEntry.entry());
+                    batchBytes.set(i, bytes + sizedEntry.size());
+                    placed = true;
+                    break;
+                }
+            }
+            if (!placed) {
+                batches.add(new ArrayList<>(List.of(sizedEntry.entry())));
+                batchBytes.add(sizedEntry.size());
+            }
+        }
+        return batches;
+    }
+
+    /**
+     * Whether the entry can be published at all, i.e. it fits in a batch on its own.
+     *
+     * @param entry the entry
+     * @return the boolean
+     */
+    public boolean fitsInBatch(PublishBatchRequestEntry entry) {
+        return entrySize(entry) <= maxBatchBytes;
+    }
+
+    /**
+     * Size in bytes sns charges against the request limit for the entry: the utf-8 message plus every message
+     * attribute name, data type and value.
+     *
+     * @param entry the entry
+     * @return the size
+     */
+    public int entrySize(PublishBatchRequestEntry entry) {
+        int size = utf8Length(entry.message()) + utf8Length(entry.subject());
+        if (entry.hasMessageAttributes()) {
+            for (Map.Entry<String, MessageAttributeValue> attribute : entry.messageAttributes().entrySet()) {
+                MessageAttributeValue value = attribute.getValue();
+                size += utf8Length(attribute.getKey()) + utf8Length(value.dataType())
+                        + utf8Length(value.stringValue());
+                if (value.binaryValue() != null) {
+                    size += value.binaryValue().asByteArrayUnsafe().length;
+                }
+            }
+        }
+        return size;
+    }
+
+    private static int utf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private record SizedEntry(PublishBatchRequestEntry entry, int size) {
+    }
+}
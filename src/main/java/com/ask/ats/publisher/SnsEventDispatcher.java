@@ -0,0 +1,94 @@
+package com.ask.ats.publisher;
+
+import com.ask.ats.model.SnsPublishResult;
+import com.ask.ats.repository.OutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Entry point for built sns events. Oversized payloads are first handed to the {@link SnsPayloadOffloader}. When the
+ * outbox is enabled the events are then persisted to the tenant outbox and shipped by the
+ * {@link com.ask.ats.service.OutboxDrainer}, otherwise they are published straight away.
+ */
+@Slf4j
+@Service
+public class SnsEventDispatcher {
+
+    @Value("${aws.sns.outbox.enabled}")
+    private boolean outboxEnabled;
+
+    @Value("${aws.sns.stream.flushSize}")
+    private int streamFlushSize;
+
+    private final SnsAsyncPublisher snsAsyncPublisher;
+    private final SnsPayloadOffloader snsPayloadOffloader;
+    private final OutboxRepository outboxRepository;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Instantiates a new Sns event dispatcher.
+     *
+     * @param snsAsyncPublisher   the sns async publisher
+     * @param snsPayloadOffloader the sns payload offloader
+     * @param outboxRepository    the outbox repository
+     * @param meterRegistry       the meter registry
+     */
+    public SnsEventDispatcher(SnsAsyncPublisher snsAsyncPublisher, SnsPayloadOffloader snsPayloadOffloader,
+                              OutboxRepository outboxRepository, MeterRegistry meterRegistry) {
+        this.snsAsyncPublisher = snsAsyncPublisher;
+        this.snsPayloadOffloader = snsPayloadOffloader;
+        this.outboxRepository = outboxRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Dispatches the entries of the client to the topic.
+     *
+     * @param clientId the client id
+     * @param topicArn the topic arn
+     * @param entries  the entries
+     * @return the future completed once the entries are published, or durably enqueued when the outbox is enabled
+     */
+    public CompletableFuture<SnsPublishResult> dispatch(int clientId, String topicArn,
+                                                        List<PublishBatchRequestEntry> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return CompletableFuture.completedFuture(SnsPublishResult.empty());
+        }
+        return snsPayloadOffloader.offload(clientId, topicArn, entries)
+                .thenCompose(offloaded -> outboxEnabled
+                        ? enqueue(clientId, topicArn, offloaded)
+                        : snsAsyncPublisher.publish(topicArn, offloaded));
+    }
+
+    /**
+     * Opens a stream dispatching the entries of the client to the topic in batches as they are built.
+     *
+     * @param clientId the client id
+     * @param topicArn the topic arn
+     * @return the sns event stream
+     */
+    public SnsEventStream stream(int clientId, String topicArn) {
+        return new SnsEventStream(this, clientId, topicArn, streamFlushSize);
+    }
+
+    private CompletableFuture<SnsPublishResult> enqueue(int clientId, String topicArn,
+                                                        List<PublishBatchRequestEntry> entries) {
+        try {
+            int inserted = outboxRepository.insertBatch(clientId, topicArn, entries);
+            meterRegistry.counter("ats.outbox.entries", "stage", "enqueued").increment(inserted);
+            return CompletableFuture.completedFuture(new SnsPublishResult(inserted, 0, 0, Collections.emptyList()));
+        } catch (DataAccessException e) {
+            log.error("SQL error while writing {} entries for topic {} to the outbox of client {}", entries.size(),
+                    topicArn, clientId, e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.ask.ats.publisher;
+
+import com.ask.ats.model.SnsPublishResult;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Collects the entries built by concurrent tasks of one client and topic without locking, dispatching them as soon
+ * as a batch worth of entries is ready instead of once every task has finished. Obtained from
+ * {@link SnsEventDispatcher#stream(int, String)}, {@link #complete()} dispatches the remainder and merges the results.
+ */
+public final class SnsEventStream {
+
+    private final SnsEventDispatcher dispatcher;
+    private final int clientId;
+    private final String topicArn;
+    private final int flushSize;
+    private final Queue<PublishBatchRequestEntry> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger buffered = new AtomicInteger();
+    private final AtomicInteger accepted = new AtomicInteger();
+    private final Queue<CompletableFuture<SnsPublishResult>> dispatched = new ConcurrentLinkedQueue<>();
+
+    SnsEventStream(SnsEventDispatcher dispatcher, int clientId, String topicArn, int flushSize) {
+        this.dispatcher = dispatcher;
+        this.clientId = clientId;
+        this.topicArn = topicArn;
+        this.flushSize = flushSize;
+    }
+
+    /**
+     * Adds the entry, dispatching a batch when enough entries are buffered. Null entries are ignored.
+     *
+     * @param entry the entry
+     */
+    public void accept(PublishBatchRequestEntry entry) {
+        if (entry == null) {
+            return;
+        }
+        buffer.add(entry);
+        accepted.incrementAndGet();
+        buffered.incrementAndGet();
+        int available;
+        while ((available = buffered.get()) >= flushSize) {
+            // whoever wins the claim polls the batch, every claimed entry is already in the buffer
+            if (buffered.compareAndSet(available, available - flushSize)) {
+                dispatch(flushSize);
+            }
+        }
+    }
+
+    /**
+     * Dispatches the remaining entries and merges the results of every dispatched batch. Call once every task has
+     * accepted its entry.
+     *
+     * @return the future completed with the merged result, failed when any batch failed to dispatch
+     */
+    public CompletableFuture<SnsPublishResult> complete() {
+        int remaining = buffered.getAndSet(0);
+        if (remaining > 0) {
+            dispatch(remaining);
+        }
+        List<CompletableFuture<SnsPublishResult>> batches = new ArrayList<>(dispatched);
+        return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> batches.stream()
+                        .map(CompletableFuture::join)
+                        .reduce(SnsPublishResult.empty(), SnsPublishResult::merge));
+    }
+
+    /**
+     * The number of accepted entries.
+     *
+     * @return the int
+     */
+    public int size() {
+        return accepted.get();
+    }
+
+    private void dispatch(int count) {
+        List<PublishBatchRequestEntry> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            batch.add(buffer.poll());
+        }
+        CompletableFuture<SnsPublishResult> result;
+        try {
+            result = dispatcher.dispatch(clientId, topicArn, batch);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        dispatched.add(result);
+    }
+}
@@ -0,0 +1,164 @@
+package com.ask.ats.publisher;
+
+import com.ask.ats.model.PayloadPointer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Claim check for sns entries too large to publish inline. The message of an oversized entry is uploaded to s3 and
+ * replaced by a {@link PayloadPointer}, flagged with the {@code payloadLocation} message attribute so consumers know
+ * to fetch the payload. The stored object is the original message, encoding included.
+ * <p>
+ * A pointer is a different wire format, so the claim check is off by default and only applies to the topics listed
+ * in {@code aws.s3.claimCheck.topicArns}, whose consumers resolve pointers. Only entries above the threshold, by
+ * default the sns size limit, are offloaded, every entry sns would accept is still published inline.
+ */
+@Slf4j
+@Component
+public class SnsPayloadOffloader {
+
+    /**
+     * Message attribute marking an entry whose payload lives in s3.
+     */
+    public static final String PAYLOAD_LOCATION_ATTRIBUTE = "payloadLocation";
+
+    @Value("${aws.s3.claimCheck.enabled}")
+    private boolean enabled;
+
+    @Value("${aws.s3.claimCheck.topicArns}")
+    private Set<String> topicArns;
+
+    @Value("${aws.s3.claimCheck.thresholdBytes}")
+    private int thresholdBytes;
+
+    @Value("${aws.s3.claimCheck.prefix}")
+    private String prefix;
+
+    @Value("${aws.s3.bucketName}")
+    private String bucketName;
+
+    private final S3AsyncClient s3AsyncClient;
+    private final SnsBatchPacker snsBatchPacker;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Instantiates a new Sns payload offloader.
+     *
+     * @param s3AsyncClient  the s3 async client
+     * @param snsBatchPacker the sns batch packer
+     * @param objectMapper   the object mapper
+     * @param meterRegistry  the meter registry
+     */
+    public SnsPayloadOffloader(S3AsyncClient s3AsyncClient, SnsBatchPacker snsBatchPacker, ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) {
+        this.s3AsyncClient = s3AsyncClient;
+        this.snsBatchPacker = snsBatchPacker;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Uploads the payload of every entry above the threshold to s3, concurrently, and swaps it for a pointer when the
+     * topic is opted in to the claim check. Entries whose upload fails are kept inline.
+     *
+     * @param clientId the client id
+     * @param topicArn the topic arn
+     * @param entries  the entries
+     * @return the future completed with the entries to publish, in the original order
+     */
+    public CompletableFuture<List<PublishBatchRequestEntry>> offload(int clientId, String topicArn,
+                                                                     List<PublishBatchRequestEntry> entries) {
+        if (!enabled || !topicArns.contains(topicArn) || entries == null || entries.isEmpty()) {
+            return CompletableFuture.completedFuture(entries);
+        }
+
+        List<CompletableFuture<PublishBatchRequestEntry>> offloaded = new ArrayList<>(entries.size());
+        boolean anyOffloaded = false;
+        for (PublishBatchRequestEntry entry : entries) {
+            int size = snsBatchPacker.entrySize(entry);
+            if (size > thresholdBytes) {
+                offloaded.add(upload(clientId, topicArn, entry));
+                anyOffloaded = true;
+            } else {
+                offloaded.add(CompletableFuture.completedFuture(entry));
+            }
+        }
+        if (!anyOffloaded) {
+            return CompletableFuture.completedFuture(entries);
+        }
+        return CompletableFuture.allOf(offloaded.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> offloaded.stream().map(CompletableFuture::join).toList());
+    }
+
+    private CompletableFuture<PublishBatchRequestEntry> upload(int clientId, String topicArn,
+                                                               PublishBatchRequestEntry entry) {
+        byte[] payload = entry.message().getBytes(StandardCharsets.UTF_8);
+        String key = prefix + topicArn.substring(topicArn.lastIndexOf(':') + 1) + "/" + clientId + "/"
+                + LocalDate.now() + "/" + entry.id();
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType("text/plain; charset=utf-8")
+                .contentLength((long) payload.length)
+                .build();
+
+        return s3AsyncClient.putObject(putObjectRequest, AsyncRequestBody.fromBytes(payload))
+                .thenApply(response -> {
+                    meterRegistry.counter("ats.s3.claimcheck.entries", "outcome", "offloaded").increment();
+                    log.info("Offloaded {} bytes of sns entry {} for client {} to s3 {}", payload.length, entry.id(),
+                            clientId, key);
+                    return toPointerEntry(entry, key, payload.length);
+                })
+                .exceptionally(ex -> {
+                    meterRegistry.counter("ats.s3.claimcheck.entries", "outcome", "failed").increment();
+                    log.error("Error offloading sns entry {} for client {} to s3, publishing it inline", entry.id(),
+                            clientId, ex);
+                    return entry;
+                });
+    }
+
+    private PublishBatchRequestEntry toPointerEntry(PublishBatchRequestEntry entry, String key, long sizeBytes) {
+        PayloadPointer pointer = PayloadPointer.builder()
+                .bucket(bucketName)
+                .key(key)
+                .sizeBytes(sizeBytes)
+                .originalEntryId(entry.id())
+                .build();
+        String message;
+        try {
+            message = objectMapper.writeValueAsString(pointer);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Error converting payload pointer to json string", e);
+        }
+
+        Map<String, MessageAttributeValue> messageAttributes = entry.hasMessageAttributes()
+                ? new HashMap<>(entry.messageAttributes()) : new HashMap<>();
+        messageAttributes.put(PAYLOAD_LOCATION_ATTRIBUTE, MessageAttributeValue.builder()
+                .dataType("String")
+                .stringValue("s3")
+                .build());
+        return entry.toBuilder()
+                .message(message)
+                .messageAttributes(messageAttributes)
+                .build();
+    }
+}
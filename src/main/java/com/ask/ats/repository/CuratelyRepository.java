@@ -44,7 +44,7 @@ public class CuratelyRepository {
     }
 
 
-    private static String replaceDbName(int clientId, String sql) {
+    static String replaceDbName(int clientId, String sql) {
         return sql.replace("DB_NAME", CURATELY + clientId);
     }
 
@@ -104,6 +104,26 @@ public class CuratelyRepository {
         }
     }
 
+    /**
+     * Fetches the events count and created date of the latest successful JobDivaEvents rows of the event.
+     *
+     * @param clientId  the client id
+     * @param eventName the event name
+     * @param limit     the max number of rows
+     * @return the created date and events count of the rows, newest first
+     * @throws DataAccessException the data access exception
+     */
+    public List<Map.Entry<Timestamp, Integer>> fetchRecentJobsEventCounts(int clientId, String eventName, int limit)
+            throws DataAccessException {
+        String sql = "SELECT TOP (:limit) createdDate, eventsCount FROM DB_NAME.dbo.JobDivaEvents WITH(NOLOCK) "
+                + "WHERE eventName = :eventName AND eventStatus = 1 ORDER BY createdDate DESC";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("limit", limit)
+                .addValue("eventName", eventName);
+        return namedParameterJdbcTemplate.query(replaceDbName(clientId, sql), params, (rs, rowNum) ->
+                Map.entry(rs.getTimestamp("createdDate"), rs.getInt("eventsCount")));
+    }
+
 
     public Map<Integer, String> findJobAtsValuesForJobDivaRanked(int clientId, boolean useOpenResumes)
             throws DataAccessException {
@@ -211,6 +231,26 @@ public class CuratelyRepository {
         }
     }
 
+    /**
+     * Fetches the events count and created date of the latest successful scheduleJobActivity rows of the type.
+     *
+     * @param clientId the client id
+     * @param type     the type
+     * @param limit    the max number of rows
+     * @return the created date and events count of the rows, newest first
+     * @throws DataAccessException the data access exception
+     */
+    public List<Map.Entry<Timestamp, Integer>> fetchRecentActivityEventCounts(int clientId, String type, int limit)
+            throws DataAccessException {
+        String sql = "SELECT TOP (:limit) createdDate, eventsCount FROM DB_NAME.dbo.scheduleJobActivity WITH(NOLOCK) "
+                + "WHERE type = :type AND status = 1 ORDER BY createdDate DESC";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("limit", limit)
+                .addValue("type", type);
+        return namedParameterJdbcTemplate.query(replaceDbName(clientId, sql), params, (rs, rowNum) ->
+                Map.entry(rs.getTimestamp("createdDate"), rs.getInt("eventsCount")));
+    }
+
     public List<Integer> fetchClientIdsByAts(Integer atsId) throws DataAccessException {
         String sql = "SELECT DISTINCT clientid FROM curately.dbo.settings s "
                 + "INNER JOIN curately.dbo.admin_master_modules amm ON (amm.id = s.settingsid) "
@@ -307,6 +347,22 @@ public class CuratelyRepository {
         }
     }
 
+    /**
+     * Fetches the events count and updated date of the latest published SubscriptionListEvents rows.
+     *
+     * @param clientId the client id
+     * @param limit    the max number of rows
+     * @return the updated date and events count of the rows, newest first
+     * @throws DataAccessException the data access exception
+     */
+    public List<Map.Entry<Timestamp, Integer>> fetchRecentSubscriptionEventCounts(int clientId, int limit)
+            throws DataAccessException {
+        String sql = "SELECT TOP (:limit) updatedDate, eventsCount FROM DB_NAME.dbo.SubscriptionListEvents "
+                + "WITH(NOLOCK) WHERE eventStatus = 1 ORDER BY updatedDate DESC";
+        return namedParameterJdbcTemplate.query(replaceDbName(clientId, sql), new MapSqlParameterSource("limit", limit),
+                (rs, rowNum) -> Map.entry(rs.getTimestamp("updatedDate"), rs.getInt("eventsCount")));
+    }
+
     public String getActiveSubscriptionId(int clientId, int recruiterId) throws DataAccessException {
         String sql = "SELECT TOP 1 subscriptionId FROM DB_NAME.dbo.SubscriptionEvent WHERE recruiterId = ? "
                 + "AND subscriptionStatus = 1 ORDER BY id DESC";
@@ -0,0 +1,192 @@
+package com.ask.ats.repository;
+
+import com.ask.ats.model.OutboxEntry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.ask.ats.repository.CuratelyRepository.replaceDbName;
+
+/**
+ * Repository of the per tenant sns outbox, see {@code sql/SnsOutbox.sql}.
+ */
+@Repository
+@Log4j2
+public class OutboxRepository {
+
+    private static final int MAX_IDS_PER_STATEMENT = 1000;
+
+    @Value("${aws.sns.outbox.insertBatchSize}")
+    private int insertBatchSize;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Instantiates a new Outbox repository.
+     *
+     * @param jdbcTemplate               the jdbc template
+     * @param namedParameterJdbcTemplate the named parameter jdbc template
+     * @param objectMapper               the object mapper
+     */
+    public OutboxRepository(JdbcTemplate jdbcTemplate, NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                            ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Inserts the entries into the outbox with a jdbc batch insert.
+     *
+     * @param clientId the client id
+     * @param topicArn the topic arn
+     * @param entries  the entries
+     * @return the number of inserted rows
+     * @throws DataAccessException the data access exception
+     */
+    public int insertBatch(int clientId, String topicArn, List<PublishBatchRequestEntry> entries)
+            throws DataAccessException {
+        String sql = "INSERT INTO DB_NAME.dbo.SnsOutbox (topicArn, entryId, message, messageAttributes, status, "
+                + "attempts, createdDate) VALUES (?, ?, ?, ?, 0, 0, GETDATE())";
+        jdbcTemplate.batchUpdate(replaceDbName(clientId, sql), entries, insertBatchSize, (ps, entry) -> {
+            ps.setString(1, topicArn);
+            ps.setString(2, entry.id());
+            ps.setString(3, entry.message());
+            ps.setString(4, writeAttributes(entry));
+        });
+        log.info("Inserted {} sns outbox entries for topic {}, client {}", entries.size(), topicArn, clientId);
+        return entries.size();
+    }
+
+    /**
+     * Claims up to limit unclaimed or lease expired entries for the lease owner.
+     *
+     * @param clientId     the client id
+     * @param leaseOwner   the lease owner
+     * @param limit        the limit
+     * @param leaseSeconds the lease seconds
+     * @return the claimed entries
+     * @throws DataAccessException the data access exception
+     */
+    public List<OutboxEntry> claim(int clientId, String leaseOwner, int limit, int leaseSeconds)
+            throws DataAccessException {
+        String sql = "UPDATE TOP (:limit) DB_NAME.dbo.SnsOutbox WITH (ROWLOCK, READPAST) "
+                + "SET leaseOwner = :leaseOwner, leaseUntil = DATEADD(SECOND, :leaseSeconds, GETDATE()), "
+                + "attempts = attempts + 1, updatedDate = GETDATE() "
+                + "OUTPUT inserted.id, inserted.topicArn, inserted.entryId, inserted.message, "
+                + "inserted.messageAttributes, inserted.attempts "
+                + "WHERE status = 0 AND (leaseUntil IS NULL OR leaseUntil < GETDATE())";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("limit", limit)
+                .addValue("leaseOwner", leaseOwner)
+                .addValue("leaseSeconds", leaseSeconds);
+        return namedParameterJdbcTemplate.query(replaceDbName(clientId, sql), params, this::mapOutboxEntry);
+    }
+
+    /**
+     * Acknowledges the published entries by removing them from the outbox.
+     *
+     * @param clientId the client id
+     * @param ids      the ids
+     * @throws DataAccessException the data access exception
+     */
+    public void ack(int clientId, List<Long> ids) throws DataAccessException {
+        String sql = "DELETE FROM DB_NAME.dbo.SnsOutbox WHERE id IN (:ids)";
+        for (int i = 0; i < ids.size(); i += MAX_IDS_PER_STATEMENT) {
+            List<Long> chunk = ids.subList(i, Math.min(i + MAX_IDS_PER_STATEMENT, ids.size()));
+            namedParameterJdbcTemplate.update(replaceDbName(clientId, sql),
+                    new MapSqlParameterSource("ids", chunk));
+        }
+    }
+
+    /**
+     * Releases the lease of entries that could not be published, parking the ones out of attempts.
+     *
+     * @param clientId    the client id
+     * @param ids         the ids
+     * @param maxAttempts the max attempts
+     * @throws DataAccessException the data access exception
+     */
+    public void release(int clientId, List<Long> ids, int maxAttempts) throws DataAccessException {
+        String sql = "UPDATE DB_NAME.dbo.SnsOutbox SET leaseOwner = NULL, leaseUntil = NULL, "
+                + "status = CASE WHEN attempts >= :maxAttempts THEN 2 ELSE 0 END, updatedDate = GETDATE() "
+                + "WHERE id IN (:ids)";
+        for (int i = 0; i < ids.size(); i += MAX_IDS_PER_STATEMENT) {
+            List<Long> chunk = ids.subList(i, Math.min(i + MAX_IDS_PER_STATEMENT, ids.size()));
+            MapSqlParameterSource params = new MapSqlParameterSource()
+                    .addValue("ids", chunk)
+                    .addValue("maxAttempts", maxAttempts);
+            namedParameterJdbcTemplate.update(replaceDbName(clientId, sql), params);
+        }
+    }
+
+    private OutboxEntry mapOutboxEntry(ResultSet rs, int rowNum) throws SQLException {
+        PublishBatchRequestEntry entry = PublishBatchRequestEntry.builder()
+                .id(rs.getString("entryId"))
+                .message(rs.getString("message"))
+                .messageAttributes(readAttributes(rs.getString("messageAttributes")))
+                .build();
+        return OutboxEntry.builder()
+                .id(rs.getLong("id"))
+                .topicArn(rs.getString("topicArn"))
+                .attempts(rs.getInt("attempts"))
+                .entry(entry)
+                .build();
+    }
+
+    private String writeAttributes(PublishBatchRequestEntry entry) {
+        if (!entry.hasMessageAttributes() || entry.messageAttributes().isEmpty()) {
+            return null;
+        }
+        Map<String, Map<String, String>> attributes = new LinkedHashMap<>();
+        entry.messageAttributes().forEach((name, value) -> {
+            Map<String, String> attribute = new HashMap<>();
+            attribute.put("dataType", value.dataType());
+            attribute.put("stringValue", value.stringValue());
+            attributes.put(name, attribute);
+        });
+        try {
+            return objectMapper.writeValueAsString(attributes);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Error converting sns message attributes to json string", e);
+        }
+    }
+
+    private Map<String, MessageAttributeValue> readAttributes(String json) {
+        if (json == null || json.isBlank()) {
+            return Collections.emptyMap();
+        }
+        try {
+            Map<String, Map<String, String>> attributes = objectMapper.readValue(json, new TypeReference<>() {
+            });
+            Map<String, MessageAttributeValue> messageAttributes = new HashMap<>();
+            attributes.forEach((name, attribute) -> messageAttributes.put(name, MessageAttributeValue.builder()
+                    .dataType(attribute.get("dataType"))
+                    .stringValue(attribute.get("stringValue"))
+                    .build()));
+            return messageAttributes;
+        } catch (JsonProcessingException e) {
+            log.error("Error reading sns outbox message attributes {}", json, e);
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.ask.ats.repository;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository of the live scheduler nodes and of their tenant run leases in the central curately database, see
+ * {@code sql/SchedulerNodes.sql}.
+ */
+@Repository
+@Log4j2
+public class SchedulerNodeRepository {
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Instantiates a new Scheduler node repository.
+     *
+     * @param namedParameterJdbcTemplate the named parameter jdbc template
+     */
+    public SchedulerNodeRepository(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+    }
+
+    /**
+     * Registers the node or renews its heartbeat.
+     *
+     * @param nodeId   the node id
+     * @param hostName the host name
+     * @throws DataAccessException the data access exception
+     */
+    public void heartbeat(String nodeId, String hostName) throws DataAccessException {
+        String sql = "MERGE curately.dbo.ats_scheduler_nodes WITH (HOLDLOCK) AS n "
+                + "USING (SELECT :nodeId AS nodeId) AS s ON n.nodeId = s.nodeId "
+                + "WHEN MATCHED THEN UPDATE SET heartbeatDate = GETDATE() "
+                + "WHEN NOT MATCHED THEN INSERT (nodeId, hostName, startedDate, heartbeatDate) "
+                + "VALUES (:nodeId, :hostName, GETDATE(), GETDATE());";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("nodeId", nodeId)
+                .addValue("hostName", hostName);
+        namedParameterJdbcTemplate.update(sql, params);
+    }
+
+    /**
+     * Fetches the ids of the nodes whose heartbeat is within the node ttl.
+     *
+     * @param nodeTtlSeconds the node ttl seconds
+     * @return the live node ids
+     * @throws DataAccessException the data access exception
+     */
+    public List<String> fetchLiveNodeIds(int nodeTtlSeconds) throws DataAccessException {
+        String sql = "SELECT nodeId FROM curately.dbo.ats_scheduler_nodes "
+                + "WHERE heartbeatDate > DATEADD(SECOND, -:nodeTtlSeconds, GETDATE()) ORDER BY nodeId";
+        return namedParameterJdbcTemplate.query(sql, new MapSqlParameterSource("nodeTtlSeconds", nodeTtlSeconds),
+                (rs, rowNum) -> rs.getString("nodeId"));
+    }
+
+    /**
+     * Removes the node, used on shutdown and to purge nodes long past their ttl.
+     *
+     * @param nodeId the node id
+     * @throws DataAccessException the data access exception
+     */
+    public void delete(String nodeId) throws DataAccessException {
+        String sql = "DELETE FROM curately.dbo.ats_scheduler_nodes WHERE nodeId = :nodeId";
+        namedParameterJdbcTemplate.update(sql, new MapSqlParameterSource("nodeId", nodeId));
+    }
+
+    /**
+     * Removes the nodes whose heartbeat is older than the given age.
+     *
+     * @param olderThanSeconds the older than seconds
+     * @return the number of purged nodes
+     * @throws DataAccessException the data access exception
+     */
+    public int purgeExpired(int olderThanSeconds) throws DataAccessException {
+        String sql = "DELETE FROM curately.dbo.ats_scheduler_nodes "
+                + "WHERE heartbeatDate < DATEADD(SECOND, -:olderThanSeconds, GETDATE())";
+        int purged = namedParameterJdbcTemplate.update(sql,
+                new MapSqlParameterSource("olderThanSeconds", olderThanSeconds));
+        if (purged > 0) {
+            log.info("Purged {} expired scheduler nodes", purged);
+        }
+        return purged;
+    }
+
+    /**
+     * Takes the lease of the job run of the client for the node, unless another node holds an unexpired lease.
+     *
+     * @param jobName      the job name
+     * @param clientId     the client id
+     * @param nodeId       the node id
+     * @param leaseSeconds the lease seconds
+     * @return true when the node holds the lease
+     * @throws DataAccessException the data access exception
+     */
+    public boolean tryLease(String jobName, int clientId, String nodeId, int leaseSeconds) throws DataAccessException {
+        String sql = "MERGE curately.dbo.ats_scheduler_tenant_leases WITH (HOLDLOCK) AS l "
+                + "USING (SELECT :jobName AS jobName, :clientId AS clientId) AS s "
+                + "ON l.jobName = s.jobName AND l.clientId = s.clientId "
+                + "WHEN MATCHED AND (l.nodeId = :nodeId OR l.leaseUntil < GETDATE()) THEN "
+                + "UPDATE SET nodeId = :nodeId, leaseUntil = DATEADD(SECOND, :leaseSeconds, GETDATE()) "
+                + "WHEN NOT MATCHED THEN INSERT (jobName, clientId, nodeId, leaseUntil) "
+                + "VALUES (:jobName, :clientId, :nodeId, DATEADD(SECOND, :leaseSeconds, GETDATE()));";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("jobName", jobName)
+                .addValue("clientId", clientId)
+                .addValue("nodeId", nodeId)
+                .addValue("leaseSeconds", leaseSeconds);
+        return namedParameterJdbcTemplate.update(sql, params) == 1;
+    }
+
+    /**
+     * Extends the leases still held by the node.
+     *
+     * @param nodeId       the node id
+     * @param leases       the job name and client id of the held leases
+     * @param leaseSeconds the lease seconds
+     * @throws DataAccessException the data access exception
+     */
+    public void renewLeases(String nodeId, Collection<Map.Entry<String, Integer>> leases, int leaseSeconds)
+            throws DataAccessException {
+        if (leases.isEmpty()) {
+            return;
+        }
+        String sql = "UPDATE curately.dbo.ats_scheduler_tenant_leases "
+                + "SET leaseUntil = DATEADD(SECOND, :leaseSeconds, GETDATE()) "
+                + "WHERE jobName = :jobName AND clientId = :clientId AND nodeId = :nodeId";
+        SqlParameterSource[] params = leases.stream()
+                .map(lease -> new MapSqlParameterSource()
+                        .addValue("jobName", lease.getKey())
+                        .addValue("clientId", lease.getValue())
+                        .addValue("nodeId", nodeId)
+                        .addValue("leaseSeconds", leaseSeconds))
+                .toArray(SqlParameterSource[]::new);
+        namedParameterJdbcTemplate.batchUpdate(sql, params);
+    }
+
+    /**
+     * Releases the lease of the job run of the client held by the node.
+     *
+     * @param jobName  the job name
+     * @param clientId the client id
+     * @param nodeId   the node id
+     * @throws DataAccessException the data access exception
+     */
+    public void releaseLease(String jobName, int clientId, String nodeId) throws DataAccessException {
+        String sql = "DELETE FROM curately.dbo.ats_scheduler_tenant_leases "
+                + "WHERE jobName = :jobName AND clientId = :clientId AND nodeId = :nodeId";
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("jobName", jobName)
+                .addValue("clientId", clientId)
+                .addValue("nodeId", nodeId);
+        namedParameterJdbcTemplate.update(sql, params);
+    }
+}
@@ -0,0 +1,436 @@
+package com.ask.ats.service;
+
+import com.ask.ats.service.DownstreamLimiter.Downstream;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Admits the fan-out tasks of the tenants to the task executor. Tasks are tagged with their tenant and job type and
+ * queued per (tenant, job type) flow, the flows are served by deficit round robin: every turn a flow earns the
+ * weight of its job type and starts one task per whole unit earned, so a tenant with a thousand queued tasks gets
+ * the same share as a tenant with one and heavier job types get proportionally more. A task only starts once every
+ * downstream it calls has a token left in its budget, the token is returned when the task completes.
+ * <p>
+ * Submitting never runs the task on the submitting thread. Each tenant has a bounded queue and the tasks of a
+ * submission are pulled into it one at a time, only while it has a free slot, so a tenant with a thousand jobs holds
+ * at most the capacity of admitted tasks and the rest are not materialized until a slot frees. No task is ever shed,
+ * the priority only decides which waiting submission gets a freed slot first.
+ */
+@Component
+@Slf4j
+public class AdmissionController {
+
+    /**
+     * The priority of a submission, when the tenant queue is full the submissions waiting for a slot are served
+     * highest priority first.
+     */
+    public enum Priority {
+        HIGH, NORMAL, LOW
+    }
+
+    private static final long RETRY_DELAY_MILLIS = 100;
+    private static final double DEFAULT_WEIGHT = 1.0;
+
+    @Value("${curately.admission.starvationThresholdSeconds}")
+    private long starvationThresholdSeconds;
+
+    private final int tenantQueueCapacity;
+    private final Map<String, Double> weights;
+    private final Executor taskExecutor;
+    private final MeterRegistry meterRegistry;
+    private final Map<Downstream, Integer> budgets = new EnumMap<>(Downstream.class);
+    private final Map<Downstream, Integer> inFlight = new EnumMap<>(Downstream.class);
+    private final Map<Integer, Tenant> tenants = new HashMap<>();
+    private final Deque<Flow> activeFlows = new ArrayDeque<>();
+    private final Map<Priority, Integer> queuedByPriority = new EnumMap<>(Priority.class);
+    private int waiting;
+    private boolean retryScheduled;
+
+    /**
+     * Instantiates a new Admission controller.
+     *
+     * @param tenantQueueCapacity the tenant queue capacity
+     * @param atsApiBudget        the ats api budget
+     * @param sqlServerBudget     the sql server budget
+     * @param weights             the weights per job type
+     * @param taskExecutor        the task executor
+     * @param meterRegistry       the meter registry
+     */
+    public AdmissionController(@Value("${curately.admission.tenantQueueCapacity}") int tenantQueueCapacity,
+                               @Value("${curately.admission.budget.atsApi}") int atsApiBudget,
+                               @Value("${curately.admission.budget.sqlServer}") int sqlServerBudget,
+                               @Value("#{${curately.admission.weights}}") Map<String, Double> weights,
+                               @Qualifier("taskExecutor") Executor taskExecutor, MeterRegistry meterRegistry) {
+        weights.forEach((jobType, weight) -> {
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Admission weight of %s must be positive".formatted(jobType));
+            }
+        });
+        this.tenantQueueCapacity = Math.max(1, tenantQueueCapacity);
+        this.weights = Map.copyOf(weights);
+        this.taskExecutor = taskExecutor;
+        this.meterRegistry = meterRegistry;
+        budgets.put(Downstream.ATS_API, atsApiBudget);
+        budgets.put(Downstream.SQL_SERVER, sqlServerBudget);
+        for (Downstream downstream : budgets.keySet()) {
+            inFlight.put(downstream, 0);
+            Gauge.builder("ats.admission.in.flight", this, controller -> controller.inFlight(downstream))
+                    .tag("downstream", downstream.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        for (Priority priority : Priority.values()) {
+            queuedByPriority.put(priority, 0);
+            Gauge.builder("ats.admission.queue.depth", this, controller -> controller.queued(priority))
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("ats.admission.waiting", this, AdmissionController::waiting).register(meterRegistry);
+        Gauge.builder("ats.admission.oldest.wait.seconds", this, AdmissionController::oldestWaitSeconds)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Submits a task per item of the client, each runs on the task executor once admitted. The items are handed to
+     * the tenant queue one at a time while it has room, the submission waits for a freed slot otherwise, so the
+     * producer is throttled instead of queueing every item at once.
+     *
+     * @param <I>         the item type
+     * @param <T>         the result type
+     * @param clientId    the client id
+     * @param jobType     the job type
+     * @param priority    the priority
+     * @param downstreams the downstreams called by the tasks
+     * @param items       the items
+     * @param task        the task run for each item
+     * @param onResult    the consumer of the result of each task, called on the task thread
+     * @return the future completed once every task has run, failed with the first failure of a task or consumer
+     */
+    public <I, T> CompletableFuture<Void> supplyAllAsync(int clientId, String jobType, Priority priority,
+                                                         Set<Downstream> downstreams, Collection<I> items,
+                                                         Function<? super I, T> task, Consumer<? super T> onResult) {
+        Producer<I, T> producer = new Producer<>(clientId, jobType, priority, downstreams, items, task, onResult);
+        if (items.isEmpty()) {
+            producer.done.complete(null);
+            return producer.done;
+        }
+        synchronized (this) {
+            Tenant tenant = tenants.computeIfAbsent(clientId, id -> new Tenant());
+            tenant.producers.get(priority).addLast(producer);
+            waiting++;
+            fill(tenant);
+            drain();
+        }
+        return producer.done;
+    }
+
+    private void enqueue(Tenant tenant, Admission<?> admission) {
+        Flow flow = tenant.flows.computeIfAbsent(admission.jobType, jobType -> new Flow(admission.clientId, jobType,
+                weights.getOrDefault(jobType, DEFAULT_WEIGHT)));
+        flow.queue.addLast(admission);
+        tenant.size++;
+        queuedByPriority.merge(admission.priority, 1, Integer::sum);
+        if (!flow.active) {
+            flow.active = true;
+            activeFlows.addLast(flow);
+        }
+    }
+
+    /**
+     * Pulls the next items of the waiting submissions, highest priority first and round robin within a priority,
+     * until the tenant queue is full or no submission has items left.
+     */
+    private void fill(Tenant tenant) {
+        while (tenant.size < tenantQueueCapacity) {
+            Deque<Producer<?, ?>> producers = tenant.producers.values().stream()
+                    .filter(deque -> !deque.isEmpty())
+                    .findFirst()
+                    .orElse(null);
+            if (producers == null) {
+                return;
+            }
+            Producer<?, ?> producer = producers.pollFirst();
+            enqueue(tenant, producer.next());
+            if (producer.hasNext()) {
+                producers.addLast(producer);
+            } else {
+                waiting--;
+            }
+        }
+    }
+
+    private synchronized void drain() {
+        while (!activeFlows.isEmpty()) {
+            Flow flow = activeFlows.peekFirst();
+            Tenant tenant = tenants.get(flow.clientId);
+            if (flow.queue.isEmpty()) {
+                activeFlows.pollFirst();
+                tenant.flows.remove(flow.jobType);
+                if (tenant.flows.isEmpty() && tenant.producers.values().stream().allMatch(Deque::isEmpty)) {
+                    tenants.remove(flow.clientId);
+                }
+                continue;
+            }
+            if (!flow.turnStarted) {
+                flow.turnStarted = true;
+                flow.deficit += flow.weight;
+            }
+            if (flow.deficit < 1) {
+                endTurn(flow);
+                continue;
+            }
+            Admission<?> admission = flow.queue.peekFirst();
+            if (!hasBudget(admission.downstreams)) {
+                // the flow keeps its turn, a completing task drains again
+                return;
+            }
+            flow.queue.pollFirst();
+            tenant.size--;
+            queuedByPriority.merge(admission.priority, -1, Integer::sum);
+            admission.downstreams.forEach(downstream -> inFlight.merge(downstream, 1, Integer::sum));
+            if (!start(admission)) {
+                admission.downstreams.forEach(downstream -> inFlight.merge(downstream, -1, Integer::sum));
+                flow.queue.addFirst(admission);
+                tenant.size++;
+                queuedByPriority.merge(admission.priority, 1, Integer::sum);
+                scheduleRetry();
+                return;
+            }
+            fill(tenant);
+            flow.deficit -= 1;
+            if (flow.deficit < 1) {
+                endTurn(flow);
+            }
+        }
+    }
+
+    private void endTurn(Flow flow) {
+        activeFlows.pollFirst();
+        flow.turnStarted = false;
+        activeFlows.addLast(flow);
+    }
+
+    private boolean hasBudget(Set<Downstream> downstreams) {
+        return downstreams.stream()
+                .allMatch(downstream -> !budgets.containsKey(downstream)
+                        || inFlight.get(downstream) < budgets.get(downstream));
+    }
+
+    private <T> boolean start(Admission<T> admission) {
+        try {
+            taskExecutor.execute(() -> {
+                long waitNanos = System.nanoTime() - admission.submittedNanos;
+                meterRegistry.timer("ats.admission.wait", "jobType", admission.jobType,
+                        "priority", admission.priority.name().toLowerCase()).record(waitNanos, TimeUnit.NANOSECONDS);
+                if (waitNanos > TimeUnit.SECONDS.toNanos(starvationThresholdSeconds)) {
+                    meterRegistry.counter("ats.admission.starved", "jobType", admission.jobType).increment();
+                    log.warn("{} task of client {} waited {} ms for admission", admission.jobType, admission.clientId,
+                            TimeUnit.NANOSECONDS.toMillis(waitNanos));
+                }
+                try {
+                    admission.future.complete(admission.task.get());
+                } catch (Throwable e) {
+                    admission.future.completeExceptionally(e);
+                } finally {
+                    release(admission);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("Task executor rejected an admitted task of client {}, retrying", admission.clientId);
+            return false;
+        }
+    }
+
+    private synchronized void release(Admission<?> admission) {
+        admission.downstreams.forEach(downstream -> inFlight.merge(downstream, -1, Integer::sum));
+        drain();
+    }
+
+    private void scheduleRetry() {
+        if (retryScheduled) {
+            return;
+        }
+        retryScheduled = true;
+        CompletableFuture.delayedExecutor(RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS).execute(() -> {
+            synchronized (this) {
+                retryScheduled = false;
+                drain();
+            }
+        });
+    }
+
+    private synchronized int inFlight(Downstream downstream) {
+        return inFlight.get(downstream);
+    }
+
+    private synchronized int queued(Priority priority) {
+        return queuedByPriority.get(priority);
+    }
+
+    private synchronized int waiting() {
+        return waiting;
+    }
+
+    private synchronized double oldestWaitSeconds() {
+        long now = System.nanoTime();
+        long oldest = 0;
+        for (Tenant tenant : tenants.values()) {
+            for (Flow flow : tenant.flows.values()) {
+                Admission<?> head = flow.queue.peekFirst();
+                if (head != null) {
+                    oldest = Math.max(oldest, now - head.submittedNanos);
+                }
+            }
+            for (Deque<Producer<?, ?>> producers : tenant.producers.values()) {
+                for (Producer<?, ?> producer : producers) {
+                    oldest = Math.max(oldest, now - producer.waitingSinceNanos);
+                }
+            }
+        }
+        return oldest / 1e9;
+    }
+
+    private static final class Admission<T> {
+        private final int clientId;
+        private final String jobType;
+        private final Priority priority;
+        private final Set<Downstream> downstreams;
+        private final Supplier<T> task;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final long submittedNanos = System.nanoTime();
+
+        private Admission(int clientId, String jobType, Priority priority, Set<Downstream> downstreams,
+                          Supplier<T> task) {
+            this.clientId = clientId;
+            this.jobType = jobType;
+            this.priority = priority;
+            this.downstreams = downstreams;
+            this.task = task;
+        }
+    }
+
+    private static final class Tenant {
+        private final Map<String, Flow> flows = new LinkedHashMap<>();
+        private final Map<Priority, Deque<Producer<?, ?>>> producers = new EnumMap<>(Priority.class);
+        private int size;
+
+        private Tenant() {
+            for (Priority priority : Priority.values()) {
+                producers.put(priority, new ArrayDeque<>());
+            }
+        }
+    }
+
+    /**
+     * The items of a submission not admitted yet. The iterator is only advanced under the controller lock, the
+     * counters are guarded by the producer itself as tasks finish on the task threads.
+     */
+    private static final class Producer<I, T> {
+        private final int clientId;
+        private final String jobType;
+        private final Priority priority;
+        private final Set<Downstream> downstreams;
+        private final Iterator<I> items;
+        private final Function<? super I, T> task;
+        private final Consumer<? super T> onResult;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private long waitingSinceNanos = System.nanoTime();
+        private int remaining;
+        private int pending;
+        private Throwable failure;
+
+        private Producer(int clientId, String jobType, Priority priority, Set<Downstream> downstreams,
+                         Collection<I> items, Function<? super I, T> task, Consumer<? super T> onResult) {
+            this.clientId = clientId;
+            this.jobType = jobType;
+            this.priority = priority;
+            this.downstreams = downstreams;
+            this.items = items.iterator();
+            this.remaining = items.size();
+            this.task = task;
+            this.onResult = onResult;
+        }
+
+        private synchronized boolean hasNext() {
+            return remaining > 0;
+        }
+
+        private Admission<T> next() {
+            I item = items.next();
+            synchronized (this) {
+                remaining--;
+                pending++;
+                waitingSinceNanos = System.nanoTime();
+            }
+            Admission<T> admission = new Admission<>(clientId, jobType, priority, downstreams,
+                    () -> task.apply(item));
+            admission.future.whenComplete(this::finished);
+            return admission;
+        }
+
+        private void finished(T result, Throwable ex) {
+            Throwable error = ex;
+            if (error == null) {
+                try {
+                    onResult.accept(result);
+                } catch (RuntimeException e) {
+                    error = e;
+                }
+            }
+            boolean last;
+            Throwable firstFailure;
+            synchronized (this) {
+                if (error != null && failure == null) {
+                    failure = error;
+                }
+                pending--;
+                last = remaining == 0 && pending == 0;
+                firstFailure = failure;
+            }
+            if (last) {
+                if (firstFailure != null) {
+                    done.completeExceptionally(firstFailure);
+                } else {
+                    done.complete(null);
+                }
+            }
+        }
+    }
+
+    private static final class Flow {
+        private final int clientId;
+        private final String jobType;
+        private final double weight;
+        private final Deque<Admission<?>> queue = new ArrayDeque<>();
+        private double deficit;
+        private boolean turnStarted;
+        private boolean active;
+
+        private Flow(int clientId, String jobType, double weight) {
+            this.clientId = clientId;
+            this.jobType = jobType;
+            this.weight = weight;
+        }
+    }
+}
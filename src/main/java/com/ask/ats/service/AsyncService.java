@@ -8,7 +8,11 @@ import com.ask.ats.model.agileone.JobDetails;
 import com.ask.ats.model.jobdiva.*;
 import com.ask.ats.publisher.AgileOnePublisher;
 import com.ask.ats.publisher.JobDivaPublisher;
+import com.ask.ats.publisher.SnsEventDispatcher;
+import com.ask.ats.publisher.SnsEventStream;
 import com.ask.ats.repository.CuratelyRepository;
+import com.ask.ats.service.AdmissionController.Priority;
+import com.ask.ats.service.DownstreamLimiter.Downstream;
 import com.ask.ats.utils.CommonUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
@@ -17,10 +21,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import software.amazon.awssdk.services.sns.SnsClient;
-import software.amazon.awssdk.services.sns.model.PublishBatchRequest;
 import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
-import software.amazon.awssdk.services.sns.model.PublishBatchResponse;
 
 import java.io.IOException;
 import java.sql.Timestamp;
@@ -31,6 +32,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static com.ask.ats.utils.Constants.*;
@@ -42,17 +44,34 @@ import static com.ask.ats.utils.Constants.*;
 @Slf4j
 public class AsyncService {
 
+    /**
+     * The downstreams every fan-out task calls, the ats service and the tenant database.
+     */
+    private static final Set<Downstream> TASK_DOWNSTREAMS = EnumSet.of(Downstream.ATS_API, Downstream.SQL_SERVER);
+
     @Value("${aws.sns.jobDivaTopicArn}")
     private String snsTopicArn;
 
+    @Value("${scheduled.jobDiva.candidateNotes.catchUp.enabled}")
+    private boolean catchUpEnabled;
+
+    @Value("${scheduled.jobDiva.candidateNotes.catchUp.sliceMinutes}")
+    private long catchUpSliceMinutes;
+
+    @Value("${scheduled.jobDiva.candidateNotes.catchUp.maxSlicesPerRun}")
+    private int catchUpMaxSlicesPerRun;
 
-    private final Executor executor;
+    @Value("${scheduled.fanOut.tenantTimeoutSeconds}")
+    private long tenantTimeoutSeconds;
+
+    private final AdmissionController admissionController;
     private final JobDivaPublisher jobDivaPublisher;
-    private final SnsClient snsClient;
+    private final SnsEventDispatcher snsEventDispatcher;
     private final ObjectMapper objectMapper;
     private final ClientService clientService;
     private final AgileOnePublisher agileOnePublisher;
     private final CuratelyRepository curatelyRepository;
+    private final Executor tenantExecutor;
     /**
      * The Formatter.
      */
@@ -61,49 +80,97 @@ public class AsyncService {
     /**
      * Instantiates a new Async service.
      *
-     * @param executor           the executor
-     * @param jobDivaPublisher   the job diva publisher
-     * @param snsClient          the sns client
-     * @param objectMapper       the object mapper
-     * @param clientService      the client service
-     * @param agileOnePublisher  the agile one publisher
-     * @param curatelyRepository the curately repository
+     * @param admissionController the admission controller
+     * @param jobDivaPublisher    the job diva publisher
+     * @param snsEventDispatcher  the sns event dispatcher
+     * @param objectMapper        the object mapper
+     * @param clientService       the client service
+     * @param agileOnePublisher   the agile one publisher
+     * @param curatelyRepository  the curately repository
+     * @param tenantExecutor      the tenant executor
      */
-    public AsyncService( @Qualifier("taskExecutor") Executor executor, JobDivaPublisher jobDivaPublisher, SnsClient snsClient, ObjectMapper objectMapper, ClientService clientService, AgileOnePublisher agileOnePublisher, CuratelyRepository curatelyRepository) {
-        this.executor = executor;
+    public AsyncService(AdmissionController admissionController, JobDivaPublisher jobDivaPublisher, SnsEventDispatcher snsEventDispatcher, ObjectMapper objectMapper, ClientService clientService, AgileOnePublisher agileOnePublisher, CuratelyRepository curatelyRepository,
+                        @Qualifier("tenantExecutor") Executor tenantExecutor) {
+        this.admissionController = admissionController;
         this.jobDivaPublisher = jobDivaPublisher;
-        this.snsClient = snsClient;
+        this.snsEventDispatcher = snsEventDispatcher;
         this.objectMapper = objectMapper;
         this.clientService = clientService;
         this.agileOnePublisher = agileOnePublisher;
         this.curatelyRepository = curatelyRepository;
-    }
-
-
-    private void publishBatch(List<PublishBatchRequestEntry> publishBatchRequestEntries) throws RuntimeException {
-        PublishBatchRequest publishRequest = PublishBatchRequest.builder()
-                .topicArn(snsTopicArn)
-                .publishBatchRequestEntries(publishBatchRequestEntries)
-                .build();
-        PublishBatchResponse publishResponse = snsClient.publishBatch(publishRequest);
-        log.info("Published message successfully: {}", publishResponse.successful());
+        this.tenantExecutor = tenantExecutor;
     }
 
 
     /**
-     * Process new candidate notes.
+     * Process new candidate notes. With catch up enabled, a range since the last synced time longer than a slice is
+     * processed slice by slice, each slice published and checkpointed before the next one is fetched, so a long
+     * catch up never holds the whole range in memory and a failure only replays the slice it failed in. No slice is
+     * started once three quarters of the tenant timeout have passed, leaving the last one time to publish, the next
+     * run resumes from the last checkpoint.
      *
      * @param clientId    the client id
      * @param recruiterId the recruiter id
+     * @return the future completed with the number of published events once they are published
      * @throws DataAccessException the data access exception
      */
-    public void processNewCandidateNotes(int clientId, int recruiterId) throws DataAccessException {
+    public CompletableFuture<Integer> processNewCandidateNotes(int clientId, int recruiterId) throws DataAccessException {
         Timestamp fromDate = jobDivaPublisher.fetchFromDate(clientId);
         Date toDate = new Date();
+        if (catchUpEnabled) {
+            Timestamp adjustedFromDate = jobDivaPublisher.adjustFromDate(toDate, fromDate);
+            if (toDate.getTime() - adjustedFromDate.getTime() > TimeUnit.MINUTES.toMillis(catchUpSliceMinutes)) {
+                log.info("Catching up candidate notes of client {} from {} to {} in slices of {} minutes", clientId,
+                        adjustedFromDate, toDate, catchUpSliceMinutes);
+                long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(tenantTimeoutSeconds) * 3 / 4;
+                return processCandidateNotesSlices(clientId, recruiterId, adjustedFromDate, toDate, 0, deadline);
+            }
+        }
+        return processCandidateNotesWindow(clientId, recruiterId, fromDate, toDate, false)
+                .thenApply(CandidateNotesWindowResult::published);
+    }
+
+    private CompletableFuture<Integer> processCandidateNotesSlices(int clientId, int recruiterId, Timestamp sliceFromDate,
+                                                                   Date toDate, int slice, long deadline) {
+        if (!sliceFromDate.before(toDate)) {
+            return CompletableFuture.completedFuture(0);
+        }
+        if (slice >= catchUpMaxSlicesPerRun) {
+            log.info("Candidate notes catch up of client {} paused at {} after {} slices, the next run resumes it",
+                    clientId, sliceFromDate, slice);
+            return CompletableFuture.completedFuture(0);
+        }
+        if (System.currentTimeMillis() >= deadline) {
+            log.info("Candidate notes catch up of client {} paused at {} after {} slices, out of time for this run, "
+                    + "the next run resumes it", clientId, sliceFromDate, slice);
+            return CompletableFuture.completedFuture(0);
+        }
+        Date sliceToDate = new Date(Math.min(sliceFromDate.getTime() + TimeUnit.MINUTES.toMillis(catchUpSliceMinutes),
+                toDate.getTime()));
+        return processCandidateNotesWindow(clientId, recruiterId, sliceFromDate, sliceToDate, true)
+                .thenComposeAsync(result -> {
+                    if (!result.checkpointed()) {
+                        log.warn("Candidate notes slice {} to {} of client {} was not checkpointed, stopping the "
+                                + "catch up, the next run retries it", sliceFromDate, sliceToDate, clientId);
+                        return CompletableFuture.completedFuture(result.published());
+                    }
+                    // the next slice is fetched on the tenant executor, not on the thread completing the publish
+                    return processCandidateNotesSlices(clientId, recruiterId, new Timestamp(sliceToDate.getTime()),
+                            toDate, slice + 1, deadline)
+                            .thenApply(published -> published + result.published());
+                }, tenantExecutor);
+    }
+
+    private CompletableFuture<CandidateNotesWindowResult> processCandidateNotesWindow(
+            int clientId, int recruiterId, Timestamp fromDate, Date toDate, boolean checkpointEmpty) {
         Map<String, List<String>> jobCandidateIdsMap = jobDivaPublisher.fetchUpdatedCandidateNotes(clientId, fromDate, toDate);
-        if (jobCandidateIdsMap == null || jobCandidateIdsMap.isEmpty()) {
+        if (jobCandidateIdsMap == null) {
+            return CompletableFuture.completedFuture(new CandidateNotesWindowResult(0, false));
+        }
+        if (jobCandidateIdsMap.isEmpty()) {
             log.info("No new candidate notes to process for client {}, recruiter {}", clientId, recruiterId);
-            return;
+            return CompletableFuture.completedFuture(checkpointEmptyWindow(clientId, fromDate, toDate,
+                    checkpointEmpty));
         }
         List<String> atsValues = jobCandidateIdsMap.entrySet().stream()
                 .flatMap(entry -> entry.getValue().stream()
@@ -118,9 +185,10 @@ public class AsyncService {
                 .collect(Collectors.groupingBy(applicant -> applicant.getJobId() + "-shortList")));
 
         if (jobSourcedApplicantsMap != null && !jobSourcedApplicantsMap.isEmpty()) {
-            List<PublishBatchRequestEntry> publishRequests = new ArrayList<>();
-            List<CompletableFuture<Void>> tasks = jobSourcedApplicantsMap.entrySet().stream()
-                    .map(entry -> CompletableFuture.runAsync(() -> {
+            SnsEventStream eventStream = snsEventDispatcher.stream(clientId, snsTopicArn);
+            CompletableFuture<Void> allTasks = admissionController.supplyAllAsync(clientId,
+                    JOB_JOB_DIVA_CANDIDATE_NOTES, Priority.NORMAL, TASK_DOWNSTREAMS, jobSourcedApplicantsMap.entrySet(),
+                    entry -> {
                         try {
                             log.info("Starting async processCandidateNotes for JobDiva job id {}", entry.getKey());
                             String[] splitKey = entry.getKey().split("-");
@@ -128,67 +196,87 @@ public class AsyncService {
                             String entityName = splitKey[1];
                             PublishBatchRequestEntry requestEntry = jobDivaPublisher.processCandidateNotes(clientId, recruiterId,
                                     entry.getValue(), entityName, jobId);
-                            if (requestEntry != null) {
-                                publishRequests.add(requestEntry);
-                            }
                             log.info("Finished async processCandidateNotes for JobDiva job id {}", entry.getKey());
+                            return requestEntry;
                         } catch (Exception e) {
                             log.error("Error processing async candidate notes of job diva {}, recruiter {}, client {}: {}", entry.getKey(),
                                     recruiterId, clientId, e.getMessage(), e);
+                            return null;
                         }
-                    }, executor))
-                    .toList();
-
-            CompletableFuture<Void> allTasks = CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]))
+                    }, eventStream::accept)
                     .exceptionally(ex -> {
                         log.error("Error completing async tasks: {}", ex.getMessage(), ex);
                         return null;
                     });
 
-            allTasks.thenRun(() -> {
-                try {
-                    if (!publishRequests.isEmpty()) {
-                        int size = publishRequests.size();
-                        for (int i = 0; i < size; i += 10) {
-                            int end = Math.min(i + 10, size);
-                            publishBatch(publishRequests.subList(i, end));
+            return allTasks.thenCompose(ignored -> eventStream.complete())
+                    .thenApply(result -> {
+                        if (!result.isComplete()) {
+                            log.error("Dropped {} of {} job diva events of JobsDetail, client {}; not moving the "
+                                    + "candidate notes watermark", result.getDropped(), eventStream.size(), clientId);
+                            return new CandidateNotesWindowResult(result.getPublished(), false);
                         }
-                        log.info("Published {} job diva events of JobsDetail, client {} to Ats sns topic",
-                                size, clientId);
-                    }
-                    jobDivaPublisher.saveJobsEvent(clientId, jobSourcedApplicantsMap.size(), fromDate, toDate);
-                } catch (RuntimeException e) {
-                    log.error("Error publishing {} job diva events of JobsDetail, client {} to Ats sns topic",
-                            publishRequests.size(), clientId, e);
-                }
-            });
+                        if (eventStream.size() > 0) {
+                            log.info("Published {} job diva events of JobsDetail, client {} to Ats sns topic",
+                                    result.getPublished(), clientId);
+                        }
+                        jobDivaPublisher.saveJobsEvent(clientId, jobSourcedApplicantsMap.size(), fromDate, toDate);
+                        return new CandidateNotesWindowResult(result.getPublished(), true);
+                    })
+                    .whenComplete((published, ex) -> {
+                        if (ex != null) {
+                            log.error("Error publishing {} job diva events of JobsDetail, client {} to Ats sns topic",
+                                    eventStream.size(), clientId, ex);
+                        }
+                    });
         } else {
             log.warn("Error fetching jobs data or empty response from job diva for client {}, recruiter {}", clientId,
                     recruiterId);
+            return CompletableFuture.completedFuture(checkpointEmptyWindow(clientId, fromDate, toDate,
+                    checkpointEmpty));
         }
     }
 
+    private CandidateNotesWindowResult checkpointEmptyWindow(int clientId, Timestamp fromDate, Date toDate,
+                                                             boolean checkpointEmpty) {
+        if (!checkpointEmpty) {
+            return new CandidateNotesWindowResult(0, false);
+        }
+        // a slice without events still moves the watermark, otherwise the catch up would never get past it
+        jobDivaPublisher.saveJobsEvent(clientId, 0, fromDate, toDate);
+        return new CandidateNotesWindowResult(0, true);
+    }
+
+    /**
+     * The outcome of processing the candidate notes of a window.
+     *
+     * @param published    the number of published events
+     * @param checkpointed whether the watermark was moved to the end of the window
+     */
+    private record CandidateNotesWindowResult(int published, boolean checkpointed) {
+    }
+
     /**
      * Process job applications async.
      *
      * @param <T>         the type parameter
      * @param clientId    the client id
      * @param recruiterId the recruiter id
+     * @return the future completed with the number of published events once they are published
      */
-    public <T> void processJobApplicationsAsync(int clientId, int recruiterId) {
+    public <T> CompletableFuture<Integer> processJobApplicationsAsync(int clientId, int recruiterId) {
 
         Map<String, Set<JobApplicant>> groupedApplicants = jobDivaPublisher.scheduleJobApplications(clientId);
         if (groupedApplicants.isEmpty()) {
             log.info("No job applications to process for client {}", clientId);
-            return;
+            return CompletableFuture.completedFuture(0);
         }
 
-        List<CompletableFuture<Void>> tasks;
-        List<PublishBatchRequestEntry> publishRequests = new ArrayList<>();
+        SnsEventStream eventStream = snsEventDispatcher.stream(clientId, snsTopicArn);
         List<String> jobIds = new ArrayList<>(groupedApplicants.keySet());
 
-        tasks = jobIds.stream()
-                .map(jobId -> CompletableFuture.runAsync(() -> {
+        CompletableFuture<Void> allTasks = admissionController.supplyAllAsync(clientId, JOB_JOB_DIVA_APPLICANTS,
+                Priority.HIGH, TASK_DOWNSTREAMS, jobIds, jobId -> {
                     try {
                         log.info("Starting async processJob for Scheduled JobDiva job id {}", jobId);
                         Job job = Job.builder()
@@ -196,39 +284,33 @@ public class AsyncService {
                                 .build();
                         PublishBatchRequestEntry requestEntry = jobDivaPublisher.processJob(
                                 clientId, recruiterId, job, groupedApplicants, Boolean.FALSE);
-                        if (requestEntry != null) {
-                            publishRequests.add(requestEntry);
-                        }
                         log.info("Finished Scheduled processJob for JobDiva job id {}", jobId);
+                        return requestEntry;
                     } catch (Exception e) {
                         log.error("Error processing Async {} of {} {}, recruiter {}, client {}: {}",
                                 JOB_DIVA, JOB_DETAIL, jobId, recruiterId, clientId, e.getMessage(), e);
+                        return null;
                     }
-                }, executor))
-                .toList();
-
-        CompletableFuture<Void> allTasks = CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]))
+                }, eventStream::accept)
                 .exceptionally(ex -> {
                     log.error("Error completing async tasks: {}", ex.getMessage(), ex);
                     return null;
                 });
 
-        allTasks.thenRun(() -> {
-            try {
-                if (!publishRequests.isEmpty()) {
-                    int size = publishRequests.size();
-                    for (int i = 0; i < size; i += 10) {
-                        int end = Math.min(i + 10, size);
-                        publishBatch(publishRequests.subList(i, end));
+        return allTasks.thenCompose(ignored -> eventStream.complete())
+                .thenApply(result -> {
+                    if (eventStream.size() > 0) {
+                        log.info("Published {} {} events of {}, client {} to Ats sns topic for Scheduled, dropped {}",
+                                result.getPublished(), JOB_DIVA, JOB_DETAIL, clientId, result.getDropped());
                     }
-                    log.info("Published {} {} events of {}, client {} to Ats sns topic for Scheduled", size,
-                            JOB_DIVA, JOB_DETAIL, clientId);
-                }
-            } catch (RuntimeException e) {
-                log.error("Error while publishing {} {} events of {}, client {} to Ats sns topic", publishRequests.size(),
-                        JOB_DIVA, JOB_DETAIL, clientId, e);
-            }
-        });
+                    return result.getPublished();
+                })
+                .whenComplete((published, ex) -> {
+                    if (ex != null) {
+                        log.error("Error while publishing {} {} events of {}, client {} to Ats sns topic",
+                                eventStream.size(), JOB_DIVA, JOB_DETAIL, clientId, ex);
+                    }
+                });
     }
 
     /**
@@ -239,9 +321,9 @@ public class AsyncService {
      * @param date            the date
      * @param recruiterId     the recruiter id
      * @param isProcessEvents the is process events
-     * @return the response entity
+     * @return the future completed with the number of published events once they are published
      */
-    public <T> ResponseEntity<GenericResponse<List<T>>> processAgileOneAssignments(
+    public <T> CompletableFuture<Integer> processAgileOneAssignments(
             int clientId, String date, int recruiterId, Boolean isProcessEvents) {
 
         ResponseEntity<GenericResponse<List<T>>> response = agileOnePublisher.getAssignmentList(clientId, date, recruiterId);
@@ -249,17 +331,18 @@ public class AsyncService {
 
         if (CommonUtils.isInvalidResponse(body)) {
             log.warn("Invalid response from get agile one assignments api: {}", response);
-            return ResponseEntity.ok().body(body);
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "Invalid response from get agile one assignments api for client %d".formatted(clientId)));
         }
 
         if (body.getData().isEmpty()) {
             log.info("No Assignments to process for the updated date: {}", date);
-            return ResponseEntity.ok().body(body);
+            return CompletableFuture.completedFuture(0);
         }
 
         List<AssignmentDetails> assignments = (List<AssignmentDetails>) convertResponse(body, AssignmentDetails.class);
         if (Boolean.FALSE.equals(isProcessEvents)) {
-            return response;
+            return CompletableFuture.completedFuture(0);
         }
 
         LocalDateTime storedLastActivityDate = curatelyRepository.getLatestLastActivityDate(clientId,
@@ -278,11 +361,9 @@ public class AsyncService {
 
         if (filteredAssignments.isEmpty()) {
             log.info("No new assignments to publish for client {} after lastActivityDate {}", clientId, storedLastActivityDate);
-            response.getBody().setMessage("No new assignments to publish after lastActivityDate %s".formatted(storedLastActivityDate));
-            return response;
+            return CompletableFuture.completedFuture(0);
         }
-        processAssignmentsAsync(clientId, recruiterId, filteredAssignments);
-        return response;
+        return processAssignmentsAsync(clientId, recruiterId, filteredAssignments);
     }
 
     /**
@@ -291,61 +372,60 @@ public class AsyncService {
      * @param clientId            the client id
      * @param recruiterId         the recruiter id
      * @param filteredAssignments the filtered assignments
+     * @return the future completed with the number of published events once they are published
      */
-    public void processAssignmentsAsync(int clientId, int recruiterId, List<AssignmentDetails> filteredAssignments) {
+    public CompletableFuture<Integer> processAssignmentsAsync(int clientId, int recruiterId, List<AssignmentDetails> filteredAssignments) {
         log.info("Started Processing Assignments asynchronously Based on the LastActivityDate");
         List<String> atsValues = agileOnePublisher.getAssignmentAtsValue(clientId);
-        List<PublishBatchRequestEntry> publishRequests = new ArrayList<>();
-        List<CompletableFuture<Void>> tasks = filteredAssignments.stream()
+        SnsEventStream eventStream = agileOnePublisher.stream(clientId);
+        List<AssignmentDetails> assignments = filteredAssignments.stream()
                 .filter(assignmentDetails -> atsValues.contains(String.valueOf(assignmentDetails.getAssignmentID())))
-                .map(assignmentDetails -> CompletableFuture.runAsync(() -> {
+                .toList();
+        CompletableFuture<Void> allTasks = admissionController.supplyAllAsync(clientId, JOB_AGILE_ONE_ASSIGNMENTS,
+                Priority.NORMAL, TASK_DOWNSTREAMS, assignments, assignmentDetails -> {
                     try {
-
-                        PublishBatchRequestEntry requestEntry = agileOnePublisher.processAssignmentFetch(clientId, assignmentDetails, recruiterId);
-                        if (requestEntry != null) {
-                            publishRequests.add(requestEntry);
-                        }
+                        return agileOnePublisher.processAssignmentFetch(clientId, assignmentDetails, recruiterId);
                     } catch (IOException e) {
                         throw new RuntimeException(e);
                     }
-                }, executor))
-                .toList();
-
-        CompletableFuture<Void> allTasks = CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]))
+                }, eventStream::accept)
                 .exceptionally(ex -> {
                     log.error("Error completing async tasks: {}", ex.getMessage(), ex);
                     return null;
                 });
 
-        allTasks.thenRun(() -> {
-            try {
-                if (!publishRequests.isEmpty()) {
-                    int size = publishRequests.size();
-                    for (int i = 0; i < size; i += 10) {
-                        int end = Math.min(i + 10, size);
-                        agileOnePublisher.publishBatch(publishRequests.subList(i, end));
+        return allTasks.thenCompose(ignored -> eventStream.complete())
+                .thenApply(result -> {
+                    if (!result.isComplete()) {
+                        log.error("Dropped {} of {} Assignment events for client {}; not moving the last activity date",
+                                result.getDropped(), eventStream.size(), clientId);
+                        return result.getPublished();
                     }
-                    log.info("Published {} Assignment events for client {}", size, clientId);
-                }
-                LocalDateTime latestLastActivityDate = filteredAssignments.stream()
-                        .map(AssignmentDetails::getLastActivityDate)
-                        .map(dateStr -> {
-                            ZonedDateTime assignmentDate = ZonedDateTime.parse(dateStr, formatter);
-                            ZonedDateTime localDateTime = assignmentDate.withZoneSameInstant(ZoneId.of("America/New_York"));
-                            return localDateTime.toLocalDateTime();
-                        })
-                        .max(LocalDateTime::compareTo)
-                        .orElse(null);
-
-                if (latestLastActivityDate != null) {
-                    curatelyRepository.saveLastActivityDate(clientId, "AgileOneAssignment", latestLastActivityDate,
-                            filteredAssignments.size());
-                    log.info("Updated lastActivityDateMapAssignment for client {} to {}", clientId, latestLastActivityDate);
-                }
-            } catch (RuntimeException e) {
-                log.error("Error publishing assignment events for client {}", clientId, e);
-            }
-        });
+                    if (eventStream.size() > 0) {
+                        log.info("Published {} Assignment events for client {}", result.getPublished(), clientId);
+                    }
+                    LocalDateTime latestLastActivityDate = filteredAssignments.stream()
+                            .map(AssignmentDetails::getLastActivityDate)
+                            .map(dateStr -> {
+                                ZonedDateTime assignmentDate = ZonedDateTime.parse(dateStr, formatter);
+                                ZonedDateTime localDateTime = assignmentDate.withZoneSameInstant(ZoneId.of("America/New_York"));
+                                return localDateTime.toLocalDateTime();
+                            })
+                            .max(LocalDateTime::compareTo)
+                            .orElse(null);
+
+                    if (latestLastActivityDate != null) {
+                        curatelyRepository.saveLastActivityDate(clientId, "AgileOneAssignment", latestLastActivityDate,
+                                filteredAssignments.size());
+                        log.info("Updated lastActivityDateMapAssignment for client {} to {}", clientId, latestLastActivityDate);
+                    }
+                    return result.getPublished();
+                })
+                .whenComplete((published, ex) -> {
+                    if (ex != null) {
+                        log.error("Error publishing assignment events for client {}", clientId, ex);
+                    }
+                });
     }
 
     /**
@@ -356,26 +436,27 @@ public class AsyncService {
      * @param recruiterId     the recruiter id
      * @param date            the date
      * @param isProcessEvents the is process events
-     * @return the response entity
+     * @return the future completed with the number of published events once they are published
      */
-    public <T> ResponseEntity<GenericResponse<List<T>>> processAgileOneJobs(int clientId, int recruiterId,
-                                                                                 String date, Boolean isProcessEvents) {
+    public <T> CompletableFuture<Integer> processAgileOneJobs(int clientId, int recruiterId, String date,
+                                                              Boolean isProcessEvents) {
 
         ResponseEntity<GenericResponse<List<T>>> response = agileOnePublisher.getJobsFromAgile(clientId, date, recruiterId);
         GenericResponse<List<T>> body = response.getBody();
         if (CommonUtils.isInvalidResponse(body)) {
             log.warn("Invalid response from get agile one jobs API: {}", response);
-            return ResponseEntity.ok().body(body);
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "Invalid response from get agile one jobs api for client %d".formatted(clientId)));
         }
 
         if (body.getData().isEmpty()) {
             log.info("No jobs to process for the updated date: {}", date);
-            return ResponseEntity.ok().body(body);
+            return CompletableFuture.completedFuture(0);
         }
 
         List<JobDetails> jobs = (List<JobDetails>) convertResponse(body, JobDetails.class);
         if (Boolean.FALSE.equals(isProcessEvents)) {
-            return response;
+            return CompletableFuture.completedFuture(0);
         }
 
         LocalDateTime storedLastActivityDate = curatelyRepository.getLatestLastActivityDate(clientId,
@@ -393,12 +474,10 @@ public class AsyncService {
 
         if (filteredJobs.isEmpty()) {
             log.info("No new jobs to publish for client {} after lastActivityDate {}", clientId, storedLastActivityDate);
-            response.getBody().setMessage("No new jobs to publish after lastActivityDate %s".formatted(storedLastActivityDate));
-            return response;
+            return CompletableFuture.completedFuture(0);
         }
 
-        processJobsAsync(clientId, recruiterId, filteredJobs);
-        return response;
+        return processJobsAsync(clientId, recruiterId, filteredJobs);
     }
 
 
@@ -408,61 +487,58 @@ public class AsyncService {
      * @param clientId     the client id
      * @param recruiterId  the recruiter id
      * @param filteredJobs the filtered jobs
+     * @return the future completed with the number of published events once they are published
      */
-    public void processJobsAsync(int clientId, int recruiterId, List<JobDetails> filteredJobs) {
+    public CompletableFuture<Integer> processJobsAsync(int clientId, int recruiterId, List<JobDetails> filteredJobs) {
         log.info("Started Processing Jobs asynchronously Based on the LastActivityDate");
         List<String> atsValues = agileOnePublisher.getJobAtsValues(clientId);
-        List<PublishBatchRequestEntry> publishRequests = new ArrayList<>();
-        List<CompletableFuture<Void>> tasks = filteredJobs.stream()
-                .map(job -> CompletableFuture.runAsync(() -> {
+        SnsEventStream eventStream = agileOnePublisher.stream(clientId);
+        CompletableFuture<Void> allTasks = admissionController.supplyAllAsync(clientId, JOB_AGILE_ONE_JOBS,
+                Priority.NORMAL, TASK_DOWNSTREAMS, filteredJobs, job -> {
                     try {
                         String eventType = atsValues.contains(String.valueOf(job.getJobId())) ? "Update" : "Insert";
-                        PublishBatchRequestEntry requestEntry = agileOnePublisher.processJobFetch(clientId, job,
-                                recruiterId, eventType);
-                        if (requestEntry != null) {
-                            publishRequests.add(requestEntry);
-                        }
+                        return agileOnePublisher.processJobFetch(clientId, job, recruiterId, eventType);
                     } catch (IOException e) {
                         throw new RuntimeException(e);
                     }
-                }, executor))
-                .toList();
-
-        CompletableFuture<Void> allTasks = CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]))
+                }, eventStream::accept)
                 .exceptionally(ex -> {
                     log.error("Error completing async tasks: {}", ex.getMessage(), ex);
                     return null;
                 });
 
-        allTasks.thenRun(() -> {
-            try {
-                if (!publishRequests.isEmpty()) {
-                    int size = publishRequests.size();
-                    for (int i = 0; i < size; i += 10) {
-                        int end = Math.min(i + 10, size);
-                        agileOnePublisher.publishBatch(publishRequests.subList(i, end));
+        return allTasks.thenCompose(ignored -> eventStream.complete())
+                .thenApply(result -> {
+                    if (!result.isComplete()) {
+                        log.error("Dropped {} of {} job events for client {}; not moving the last activity date",
+                                result.getDropped(), eventStream.size(), clientId);
+                        return result.getPublished();
                     }
-                    log.info("Published {} job events for client {}", size, clientId);
-                }
-                LocalDateTime latestLastActivityDate = filteredJobs.stream()
-                        .map(JobDetails::getLastActivityDate)
-                        .map(dateStr -> {
-                            ZonedDateTime jobDate = ZonedDateTime.parse(dateStr, formatter);
-                            ZonedDateTime localDateTime = jobDate.withZoneSameInstant(ZoneId.of("America/New_York"));
-                            return localDateTime.toLocalDateTime();
-                        })
-                        .max(LocalDateTime::compareTo)
-                        .orElse(null);
-
-                if (latestLastActivityDate != null) {
-                    curatelyRepository.saveLastActivityDate(clientId, "AgileOneJob", latestLastActivityDate,
-                            filteredJobs.size());
-                    log.info("Updated lastActivityDateMap for client {} to {}", clientId, latestLastActivityDate);
-                }
-            } catch (RuntimeException e) {
-                log.error("Error publishing job events for client {}", clientId, e);
-            }
-        });
+                    if (eventStream.size() > 0) {
+                        log.info("Published {} job events for client {}", result.getPublished(), clientId);
+                    }
+                    LocalDateTime latestLastActivityDate = filteredJobs.stream()
+                            .map(JobDetails::getLastActivityDate)
+                            .map(dateStr -> {
+                                ZonedDateTime jobDate = ZonedDateTime.parse(dateStr, formatter);
+                                ZonedDateTime localDateTime = jobDate.withZoneSameInstant(ZoneId.of("America/New_York"));
+                                return localDateTime.toLocalDateTime();
+                            })
+                            .max(LocalDateTime::compareTo)
+                            .orElse(null);
+
+                    if (latestLastActivityDate != null) {
+                        curatelyRepository.saveLastActivityDate(clientId, "AgileOneJob", latestLastActivityDate,
+                                filteredJobs.size());
+                        log.info("Updated lastActivityDateMap for client {} to {}", clientId, latestLastActivityDate);
+                    }
+                    return result.getPublished();
+                })
+                .whenComplete((published, ex) -> {
+                    if (ex != null) {
+                        log.error("Error publishing job events for client {}", clientId, ex);
+                    }
+                });
     }
 
     /**
@@ -485,26 +561,27 @@ public class AsyncService {
      *
      * @param clientId    the client id
      * @param recruiterId the recruiter id
+     * @return the future completed with the number of published events once they are published
      */
-    public void processJobsAgentSearch(int clientId, int recruiterId) {
+    public CompletableFuture<Integer> processJobsAgentSearch(int clientId, int recruiterId) {
 
         List<String> jobIds = jobDivaPublisher.getExistingJobAtsValues(clientId);
         if (jobIds.isEmpty()) {
             log.info("No jobs exist to process job agent search for client {}", clientId);
-            return;
+            return CompletableFuture.completedFuture(0);
         }
+        jobDivaPublisher.prefetchJobDetails(clientId, jobIds);
 
-        List<CompletableFuture<Void>> tasks;
-        List<PublishBatchRequestEntry> publishRequests = new ArrayList<>();
-        tasks = jobIds.stream()
-                .map(jobId -> CompletableFuture.runAsync(() -> {
+        SnsEventStream eventStream = snsEventDispatcher.stream(clientId, snsTopicArn);
+        CompletableFuture<Void> allTasks = admissionController.supplyAllAsync(clientId, JOB_JOB_DIVA_AGENT_SEARCH,
+                Priority.LOW, TASK_DOWNSTREAMS, jobIds, jobId -> {
                     try {
                         log.info("Starting async process agent search for job id {}", jobId);
                         List<Candidate> candidates = jobDivaPublisher.getNewJobAgentSearch(clientId,
                                 jobId);
 
                         if (candidates.isEmpty()) {
-                            return;
+                            return null;
                         }
                         Set<String> candidateIds = candidates.stream()
                                 .map(Candidate::getCandidateid)
@@ -513,7 +590,7 @@ public class AsyncService {
                                 clientId);
 
                         if (filteredCandidates.isEmpty()) {
-                            return;
+                            return null;
                         }
                         candidates = candidates.stream()
                                 .filter(candidate -> filteredCandidates.contains(candidate.getCandidateid()))
@@ -525,39 +602,33 @@ public class AsyncService {
                                 .build();
                         PublishBatchRequestEntry requestEntry = jobDivaPublisher.processJobUpdate(clientId, recruiterId,
                                 job);
-                        if (requestEntry != null) {
-                            publishRequests.add(requestEntry);
-                        }
                         log.info("Finished async process agent search for job id {}", jobId);
+                        return requestEntry;
                     } catch (Exception e) {
                         log.error("Error processing async {} of job agent search {}, recruiter {}, client {}: {}",
                                 JOB_DIVA, jobId, recruiterId, clientId, e.getMessage(), e);
+                        return null;
                     }
-                }, executor))
-                .toList();
-
-        CompletableFuture<Void> allTasks = CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]))
+                }, eventStream::accept)
                 .exceptionally(ex -> {
                     log.error("Error completing async tasks: {}", ex.getMessage(), ex);
                     return null;
                 });
 
-        allTasks.thenRun(() -> {
-            try {
-                if (!publishRequests.isEmpty()) {
-                    int size = publishRequests.size();
-                    for (int i = 0; i < size; i += 10) {
-                        int end = Math.min(i + 10, size);
-                        publishBatch(publishRequests.subList(i, end));
+        return allTasks.thenCompose(ignored -> eventStream.complete())
+                .thenApply(result -> {
+                    if (eventStream.size() > 0) {
+                        log.info("Published {} {} events of job agent search, client {} to Ats sns topic for Scheduled, "
+                                + "dropped {}", result.getPublished(), JOB_DIVA, clientId, result.getDropped());
                     }
-                    log.info("Published {} {} events of job agent search, client {} to Ats sns topic for Scheduled",
-                            size, JOB_DIVA, clientId);
-                }
-            } catch (RuntimeException e) {
-                log.error("Error while publishing {} {} events of job agent search, client {} to Ats sns topic",
-                        publishRequests.size(), JOB_DIVA, clientId, e);
-            }
-        });
+                    return result.getPublished();
+                })
+                .whenComplete((published, ex) -> {
+                    if (ex != null) {
+                        log.error("Error while publishing {} {} events of job agent search, client {} to Ats sns topic",
+                                eventStream.size(), JOB_DIVA, clientId, ex);
+                    }
+                });
     }
 
 }
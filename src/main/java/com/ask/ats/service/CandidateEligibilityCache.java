@@ -0,0 +1,145 @@
+package com.ask.ats.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Caches the job diva data deciding whether a candidate can be processed for a job, the candidate notes, the
+ * submittals and the do not submit list, by client and candidate, so only the candidates missing from the cache are
+ * fetched. Entries expire after the ttl of their kind, are evicted by size with Caffeine's W-TinyLFU policy, and are
+ * invalidated as soon as the updated candidate notes feed reports the candidate.
+ * <p>
+ * Only the notes are covered by that feed, new submittals and do not submit entries are not, so they get their own
+ * short ttl. A kind with a ttl of zero is not cached at all, which is the default for the do not submit list since it
+ * is a compliance filter.
+ */
+@Slf4j
+@Component
+public class CandidateEligibilityCache {
+
+    /**
+     * The kinds of cached data.
+     */
+    public enum Kind {
+        NOTES, SUBMITTALS, DO_NOT_SUBMIT
+    }
+
+    private final Map<Kind, Cache<CandidateKey, List<?>>> caches = new EnumMap<>(Kind.class);
+
+    /**
+     * Instantiates a new Candidate eligibility cache.
+     *
+     * @param enabled               the enabled
+     * @param maxSize               the max number of candidates cached of each kind
+     * @param notesTtlSeconds       the notes ttl seconds
+     * @param submittalsTtlSeconds  the submittals ttl seconds
+     * @param doNotSubmitTtlSeconds the do not submit ttl seconds
+     * @param meterRegistry         the meter registry
+     */
+    public CandidateEligibilityCache(@Value("${jobDiva.eligibilityCache.enabled}") boolean enabled,
+                                     @Value("${jobDiva.eligibilityCache.maxSize}") long maxSize,
+                                     @Value("${jobDiva.eligibilityCache.ttlSeconds.notes}") long notesTtlSeconds,
+                                     @Value("${jobDiva.eligibilityCache.ttlSeconds.submittals}")
+                                     long submittalsTtlSeconds,
+                                     @Value("${jobDiva.eligibilityCache.ttlSeconds.doNotSubmit}")
+                                     long doNotSubmitTtlSeconds,
+                                     MeterRegistry meterRegistry) {
+        if (!enabled) {
+            return;
+        }
+        Map<Kind, Long> ttlSeconds = Map.of(Kind.NOTES, notesTtlSeconds, Kind.SUBMITTALS, submittalsTtlSeconds,
+                Kind.DO_NOT_SUBMIT, doNotSubmitTtlSeconds);
+        for (Kind kind : Kind.values()) {
+            if (ttlSeconds.get(kind) <= 0) {
+                continue;
+            }
+            Cache<CandidateKey, List<?>> cache = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfterWrite(Duration.ofSeconds(ttlSeconds.get(kind)))
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "jobDiva." + kind.name().toLowerCase());
+            caches.put(kind, cache);
+        }
+    }
+
+    /**
+     * Gets the data of the candidates, loading the candidates missing from the cache in one call. Candidates the
+     * loader returns no data for are cached as having none. A kind that is not cached is always loaded.
+     *
+     * @param <T>          the type parameter
+     * @param kind         the kind
+     * @param clientId     the client id
+     * @param candidateIds the candidate ids
+     * @param loader       the loader of the data by candidate id, returning null when the call failed
+     * @return the data by candidate id, or null when the loader failed
+     */
+    public <T> Map<String, List<T>> getAll(Kind kind, int clientId, Set<String> candidateIds,
+                                           Function<Set<String>, Map<String, List<T>>> loader) {
+        Cache<CandidateKey, List<?>> cache = caches.get(kind);
+        if (cache == null) {
+            return loader.apply(candidateIds);
+        }
+        Map<String, List<T>> data = new HashMap<>();
+        Set<String> missing = new HashSet<>();
+        for (String candidateId : candidateIds) {
+            List<T> cached = (List<T>) cache.getIfPresent(new CandidateKey(clientId, candidateId));
+            if (cached != null) {
+                data.put(candidateId, cached);
+            } else {
+                missing.add(candidateId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return data;
+        }
+
+        Map<String, List<T>> loaded = loader.apply(missing);
+        if (loaded == null) {
+            return null;
+        }
+        for (String candidateId : missing) {
+            List<T> candidateData = List.copyOf(loaded.getOrDefault(candidateId, List.of()));
+            cache.put(new CandidateKey(clientId, candidateId), candidateData);
+            data.put(candidateId, candidateData);
+        }
+        log.info("Loaded {} of {} candidates missing from the {} cache for client {}", missing.size(),
+                candidateIds.size(), kind, clientId);
+        return data;
+    }
+
+    /**
+     * Invalidates every kind of data of the candidates.
+     *
+     * @param clientId     the client id
+     * @param candidateIds the candidate ids
+     */
+    public void invalidate(int clientId, Collection<String> candidateIds) {
+        if (caches.isEmpty() || candidateIds.isEmpty()) {
+            return;
+        }
+        List<CandidateKey> keys = candidateIds.stream()
+                .distinct()
+                .map(candidateId -> new CandidateKey(clientId, candidateId))
+                .toList();
+        caches.values().forEach(cache -> cache.invalidateAll(keys));
+    }
+
+    private record CandidateKey(int clientId, String candidateId) {
+    }
+}
@@ -0,0 +1,172 @@
+package com.ask.ats.service;
+
+import com.ask.ats.model.GenericResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+import static com.ask.ats.utils.CommonUtils.buildCuratelyResponse;
+
+/**
+ * Fetches the ats calls passing their ids in the query string in chunks. The ids are split so no chunk exceeds the
+ * configured number of ids or joined length, the chunks are fetched concurrently, at most {@code concurrency} at a
+ * time per call, and the typed results of the chunks are merged into a single response.
+ */
+@Slf4j
+@Component
+public class ChunkedFetcher {
+
+    private final int maxIdsPerRequest;
+    private final int maxIdsLength;
+    private final int concurrency;
+    private final Executor chunkExecutor;
+
+    /**
+     * Instantiates a new Chunked fetcher.
+     *
+     * @param maxIdsPerRequest the max ids per request
+     * @param maxIdsLength     the max length of the joined ids of a request
+     * @param concurrency      the number of chunks of a call fetched at once
+     * @param chunkExecutor    the chunk executor
+     */
+    public ChunkedFetcher(@Value("${atsService.chunking.maxIdsPerRequest}") int maxIdsPerRequest,
+                          @Value("${atsService.chunking.maxIdsLength}") int maxIdsLength,
+                          @Value("${atsService.chunking.concurrency}") int concurrency,
+                          @Qualifier("chunkExecutor") Executor chunkExecutor) {
+        this.maxIdsPerRequest = Math.max(1, maxIdsPerRequest);
+        this.maxIdsLength = maxIdsLength;
+        this.concurrency = Math.max(1, concurrency);
+        this.chunkExecutor = chunkExecutor;
+    }
+
+    /**
+     * Splits the distinct ids into comma joined chunks holding at most {@code maxIdsPerRequest} ids and, unless a
+     * single id is longer, at most {@code maxIdsLength} characters.
+     *
+     * @param ids the ids
+     * @return the chunks
+     */
+    public List<String> chunk(Collection<String> ids) {
+        List<String> chunks = new ArrayList<>();
+        StringBuilder chunk = new StringBuilder();
+        int count = 0;
+        for (String id : new LinkedHashSet<>(ids)) {
+            if (id == null || id.isBlank()) {
+                continue;
+            }
+            if (count > 0 && (count == maxIdsPerRequest || chunk.length() + 1 + id.length() > maxIdsLength)) {
+                chunks.add(chunk.toString());
+                chunk.setLength(0);
+                count = 0;
+            }
+            if (count > 0) {
+                chunk.append(',');
+            }
+            chunk.append(id);
+            count++;
+        }
+        if (count > 0) {
+            chunks.add(chunk.toString());
+        }
+        return chunks;
+    }
+
+    /**
+     * Fetches the ids chunk by chunk and merges the data of the chunks. A single chunk is fetched on the calling
+     * thread, and an empty id set is still fetched once so the ats service answers it as before. When a chunk
+     * fails, the chunks not started yet are skipped and the failed response is returned as is.
+     *
+     * @param <R>        the type parameter
+     * @param ids        the ids
+     * @param entityName the entity name
+     * @param clientId   the client id
+     * @param call       the call fetching one chunk of comma joined ids
+     * @param merge      the merge of the data of two chunks
+     * @return the merged response, or the response of the first failed chunk
+     */
+    public <R> ResponseEntity<GenericResponse<R>> fetch(Collection<String> ids, String entityName, int clientId,
+                                                         Function<String, ResponseEntity<GenericResponse<R>>> call,
+                                                         BinaryOperator<R> merge) {
+        List<String> chunks = chunk(ids);
+        if (chunks.size() <= 1) {
+            return call.apply(chunks.isEmpty() ? "" : chunks.get(0));
+        }
+        log.info("Fetching {} ids of {} in {} chunks for client {}", ids.size(), entityName, chunks.size(), clientId);
+
+        AtomicReferenceArray<ResponseEntity<GenericResponse<R>>> responses =
+                new AtomicReferenceArray<>(chunks.size());
+        AtomicInteger next = new AtomicInteger();
+        AtomicBoolean failed = new AtomicBoolean();
+        int lanes = Math.min(concurrency, chunks.size());
+        CompletableFuture<?>[] running = new CompletableFuture[lanes];
+        for (int lane = 0; lane < lanes; lane++) {
+            running[lane] = CompletableFuture.runAsync(() -> {
+                int index;
+                while (!failed.get() && (index = next.getAndIncrement()) < chunks.size()) {
+                    ResponseEntity<GenericResponse<R>> response = call.apply(chunks.get(index));
+                    responses.set(index, response);
+                    if (isFailed(response)) {
+                        failed.set(true);
+                    }
+                }
+            }, chunkExecutor);
+        }
+        try {
+            CompletableFuture.allOf(running).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+
+        R data = null;
+        for (int i = 0; i < chunks.size(); i++) {
+            ResponseEntity<GenericResponse<R>> response = responses.get(i);
+            if (response == null) {
+                continue;
+            }
+            if (isFailed(response)) {
+                log.error("Chunk {} of {} for {} failed for client {}", i + 1, chunks.size(), entityName, clientId);
+                return response;
+            }
+            R chunkData = response.getBody().getData();
+            data = data == null ? chunkData : merge.apply(data, chunkData);
+        }
+        return buildCuratelyResponse(HttpStatus.OK, data, null, "Successfully fetched %s".formatted(entityName),
+                Boolean.TRUE);
+    }
+
+    /**
+     * Concatenates the lists of two chunks.
+     *
+     * @param <T>   the type parameter
+     * @param left  the left
+     * @param right the right
+     * @return the list
+     */
+    public static <T> List<T> concat(List<T> left, List<T> right) {
+        List<T> merged = new ArrayList<>(left.size() + right.size());
+        merged.addAll(left);
+        merged.addAll(right);
+        return merged;
+    }
+
+    private static <R> boolean isFailed(ResponseEntity<GenericResponse<R>> response) {
+        GenericResponse<R> body = response == null ? null : response.getBody();
+        return body == null || !Boolean.TRUE.equals(body.getSuccess()) || body.getData() == null;
+    }
+}
@@ -8,8 +8,11 @@ import com.ask.ats.model.jobdiva.CandidateNotesListResponse;
 import com.ask.ats.model.jobdiva.GetResponse;
 import com.ask.ats.publisher.BullhornEventPublisher;
 import com.ask.ats.repository.CuratelyRepository;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
@@ -19,9 +22,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static com.ask.ats.utils.CommonUtils.buildCuratelyResponse;
 import static com.ask.ats.utils.CommonUtils.buildGenericResponse;
@@ -39,6 +49,15 @@ public class ClientService {
     @Value("${scheduled.jobDiva.candidateNotes.pageSize}")
     private int candidateNotesPageSize;
 
+    @Value("${atsService.clientResponse.capture.enabled}")
+    private boolean captureClientResponse;
+
+    @Value("${atsService.clientResponse.capture.sampleRate}")
+    private double captureSampleRate;
+
+    @Value("${atsService.clientResponse.capture.maxChars}")
+    private int captureMaxChars;
+
 
     private final RestTemplate restTemplate;
     private final GlobalExceptionHandler exceptionHandler;
@@ -96,7 +115,7 @@ public class ClientService {
                     }
             );
 
-            String responseJson = objectMapper.writeValueAsString(response);
+            String responseJson = captureClientResponse(response);
             log.info("Successfully fetched multiple {}s for client {} with IDs {}", entityName, clientId, entityIds);
 
             BullhornResponse<T> body = response.getBody();
@@ -178,13 +197,13 @@ public class ClientService {
      */
     public <T> ResponseEntity<GenericResponse<List<T>>> getDetails(String entityIds, String userFieldsName, String entityName, int clientId) {
 
-        String apiUrl = "%s/jobDiva/getDetails/%d?entityName=%s&ids=%s&userFieldsName=%s".formatted(atsServiceApiUrl, clientId, entityName, entityIds, userFieldsName);
+        String apiUrl = detailsUrl(entityIds, userFieldsName, entityName, clientId);
 
         try {
             ResponseEntity<GetResponse<T>> response = restTemplate.exchange(apiUrl, HttpMethod.GET,
                     null, new ParameterizedTypeReference<>() {
                     });
-            String responseJson = objectMapper.writeValueAsString(response);
+            String responseJson = captureClientResponse(response);
             log.info("Successfully fetched {} from job diva with status {}", entityName, response.getStatusCode());
 
             GetResponse<T> body = response.hasBody() ? response.getBody() : null;
@@ -206,6 +225,99 @@ public class ClientService {
         }
     }
 
+    /**
+     * Gets details bound straight to the model class. The response is stream parsed, so the data array is never
+     * materialized as a map tree before being bound.
+     *
+     * @param <T>        the type parameter
+     * @param entityIds  the entity ids
+     * @param entityName the entity name
+     * @param clientId   the client id
+     * @param modelClass the model class
+     * @return the details
+     */
+    public <T> ResponseEntity<GenericResponse<List<T>>> getDetails(String entityIds, String entityName, int clientId,
+                                                                   Class<T> modelClass) {
+        List<T> data = new ArrayList<>();
+        return streamDetails(entityIds, entityName, clientId, modelClass, data::add, () -> data);
+    }
+
+    /**
+     * Streams the details to the consumer one element at a time as they are parsed, without buffering the whole
+     * list. The data of the returned response is the number of elements consumed.
+     *
+     * @param <T>        the type parameter
+     * @param entityIds  the entity ids
+     * @param entityName the entity name
+     * @param clientId   the client id
+     * @param modelClass the model class
+     * @param consumer   the consumer
+     * @return the response entity
+     */
+    public <T> ResponseEntity<GenericResponse<Integer>> forEachDetail(String entityIds, String entityName, int clientId,
+                                                                      Class<T> modelClass, Consumer<? super T> consumer) {
+        AtomicInteger count = new AtomicInteger();
+        return streamDetails(entityIds, entityName, clientId, modelClass, item -> {
+            consumer.accept(item);
+            count.incrementAndGet();
+        }, count::get);
+    }
+
+    private <T, R> ResponseEntity<GenericResponse<R>> streamDetails(String entityIds, String entityName, int clientId,
+                                                                   Class<T> modelClass, Consumer<? super T> consumer,
+                                                                   Supplier<R> result) {
+        String apiUrl = detailsUrl(entityIds, null, entityName, clientId);
+        try {
+            Boolean hasData = restTemplate.execute(apiUrl, HttpMethod.GET, null,
+                    response -> readDataArray(response.getBody(), modelClass, consumer));
+            log.info("Successfully streamed {} from job diva for client {}", entityName, clientId);
+
+            R data = Boolean.TRUE.equals(hasData) ? result.get() : null;
+            String message = "Successfully fetched %s".formatted(entityName);
+            return buildCuratelyResponse(HttpStatus.OK, data, null, message, Boolean.TRUE);
+        } catch (RestClientException ex) {
+            return exceptionHandler.handleRestClientException(ex, "Client Error while fetching job diva %s"
+                    .formatted(entityName));
+        } catch (Exception e) {
+            return exceptionHandler.handleGeneralException(e, "Error while fetching job diva %s".formatted(entityName));
+        }
+    }
+
+    /**
+     * Reads the {@code data} array of a get details response, binding and handing over each element as soon as it
+     * is parsed.
+     *
+     * @return whether the response carried a data array
+     */
+    private <T> boolean readDataArray(InputStream body, Class<T> modelClass, Consumer<? super T> consumer)
+            throws IOException {
+        ObjectReader reader = objectMapper.readerFor(modelClass);
+        boolean hasData = false;
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if ("data".equals(fieldName) && token == JsonToken.START_ARRAY) {
+                    hasData = true;
+                    while (parser.nextToken() != JsonToken.END_ARRAY) {
+                        consumer.accept(reader.readValue(parser));
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return hasData;
+    }
+
+    private String detailsUrl(String entityIds, String userFieldsName, String entityName, int clientId) {
+        return "%s/jobDiva/getDetails/%d?entityName=%s&ids=%s&userFieldsName=%s".formatted(atsServiceApiUrl, clientId,
+                entityName, entityIds, userFieldsName);
+    }
+
     /**
      * Job agent search response entity.
      *
@@ -221,7 +333,7 @@ public class ClientService {
             ResponseEntity<GenericResponse<List<T>>> response = restTemplate.exchange(apiUrl, HttpMethod.GET,
                     null, new ParameterizedTypeReference<>() {
                     });
-            String responseJson = objectMapper.writeValueAsString(response);
+            String responseJson = captureClientResponse(response);
             log.info("Successful job agent search in job diva with status {}", response.getStatusCode());
 
             List<T> body = response.hasBody() ? Objects.requireNonNull(response.getBody()).getData() : Collections.emptyList();
@@ -254,7 +366,7 @@ public class ClientService {
                     new ParameterizedTypeReference<>() {
                     });
 
-            String responseJson = objectMapper.writeValueAsString(response);
+            String responseJson = captureClientResponse(response);
             log.info("Successfully fetched candidate notes list from job diva with status {}", response.getStatusCode());
 
             CandidateNotesListResponse body = response.hasBody() ? Objects.requireNonNull(response.getBody()).getData() : null;
@@ -285,7 +397,7 @@ public class ClientService {
             ResponseEntity<GetResponse<T>> response = restTemplate.exchange(apiUrl, HttpMethod.GET,
                     null, new ParameterizedTypeReference<>() {
                     });
-            String responseJson = objectMapper.writeValueAsString(response);
+            String responseJson = captureClientResponse(response);
             log.info("Successful get new updated candidate notes from job diva for page {}, client {}: {}", pageNumber, clientId,
                     response.getStatusCode());
 
@@ -308,11 +420,24 @@ public class ClientService {
 
 
 
-    public void getListEvent(int clientId, int recruiterId) throws DataAccessException {
+    /**
+     * Fetches and publishes the latest events of the active subscription of the client.
+     *
+     * @param clientId    the client id
+     * @param recruiterId the recruiter id
+     * @return the number of fetched events
+     * @throws DataAccessException the data access exception
+     */
+    public int getListEvent(int clientId, int recruiterId) throws DataAccessException {
         String subscriptionId = curatelyRepository.getActiveSubscriptionId(clientId, recruiterId);
-        if (!subscriptionId.isBlank()) {
-            fetchListOfEvents(subscriptionId, clientId, recruiterId);
+        if (subscriptionId.isBlank()) {
+            return 0;
+        }
+        GenericResponse<EventResponse> body = fetchListOfEvents(subscriptionId, clientId, recruiterId).getBody();
+        if (body == null || !Boolean.TRUE.equals(body.getSuccess())) {
+            throw new IllegalStateException("Error fetching bullhorn events for client %d".formatted(clientId));
         }
+        return body.getData() == null || body.getData().getEvents() == null ? 0 : body.getData().getEvents().size();
     }
     /**
      * Fetch list of events response entity.
@@ -340,20 +465,24 @@ public class ClientService {
                 curatelyRepository.insertEventSubscriptionList(subscriptionId, eventResponse.getRequestId(), eventsCount,
                         jsonEvents, clientId, Boolean.FALSE);
                 if (!events.isEmpty()) {
-                    bullhornEventPublisher.processEventsAsync(events, clientId, recruiterId);
-                    curatelyRepository.updateEventSubscriptionList(subscriptionId, clientId, requestId);
+                    if (bullhornEventPublisher.processEventsAsync(events, clientId, recruiterId)) {
+                        curatelyRepository.updateEventSubscriptionList(subscriptionId, clientId, requestId);
+                    } else {
+                        log.error("Not all events were published: Subscription ID = {}, Request ID = {}, client {}",
+                                subscriptionId, requestId, clientId);
+                    }
                 }
 
                 log.info("Successfully fetched events: Subscription ID = {}, Request ID = {}, Events Count = {}",
                         subscriptionId, requestId, eventsCount);
                 return buildCuratelyResponse(response.getStatusCode(), eventResponse,
-                        objectMapper.writeValueAsString(response), "Successfully fetched the latest events",
+                        captureClientResponse(response), "Successfully fetched the latest events",
                         Boolean.TRUE);
             } else {
                 log.info("No new events found: Subscription ID = {}, Request ID = {}, Response = {}", subscriptionId,
                         requestId, response.getBody());
                 return buildCuratelyResponse(response.getStatusCode(), Objects.requireNonNull(response.getBody()).getData(),
-                        objectMapper.writeValueAsString(response),
+                        captureClientResponse(response),
                         "No new events available for the given subscription and request ID", Boolean.TRUE);
             }
         } catch (RestClientException ex) {
@@ -364,4 +493,22 @@ public class ClientService {
             return exceptionHandler.handleGeneralException(e, "Unexpected error while fetching list of events");
         }
     }
+
+    /**
+     * Serializes the raw response for {@link GenericResponse#getClientResponse()} when the diagnostic capture is
+     * enabled and the call is sampled, truncated to the configured size. Returns null otherwise so the regular path
+     * pays no serialization cost.
+     *
+     * @param response the response
+     * @return the captured response json, or null
+     * @throws JsonProcessingException the json processing exception
+     */
+    private String captureClientResponse(Object response) throws JsonProcessingException {
+        if (!captureClientResponse
+                || (captureSampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= captureSampleRate)) {
+            return null;
+        }
+        String responseJson = objectMapper.writeValueAsString(response);
+        return responseJson.length() > captureMaxChars ? responseJson.substring(0, captureMaxChars) : responseJson;
+    }
 }
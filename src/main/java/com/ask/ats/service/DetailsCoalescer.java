@@ -0,0 +1,197 @@
+package com.ask.ats.service;
+
+import com.ask.ats.model.GenericResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static com.ask.ats.utils.CommonUtils.buildCuratelyResponse;
+
+/**
+ * Coalesces the get details lookups of concurrent callers. The ids asked for by the callers of a client and entity
+ * within a short window are gathered into one batch, fetched once, deduplicated, through the
+ * {@link ChunkedFetcher}, and every caller gets back the elements of its own ids. Ids already part of a batch being
+ * gathered or fetched are not asked for again, the caller waits for that batch instead.
+ */
+@Slf4j
+@Component
+public class DetailsCoalescer {
+
+    @Value("${atsService.coalescing.enabled}")
+    private boolean enabled;
+
+    @Value("${atsService.coalescing.windowMillis}")
+    private long windowMillis;
+
+    @Value("${atsService.coalescing.maxBatchIds}")
+    private int maxBatchIds;
+
+    private final Map<Key, Batch<?>> gathering = new HashMap<>();
+    private final Map<Key, Map<String, Batch<?>>> pendingIds = new HashMap<>();
+    private final ClientService clientService;
+    private final ChunkedFetcher chunkedFetcher;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Instantiates a new Details coalescer.
+     *
+     * @param clientService  the client service
+     * @param chunkedFetcher the chunked fetcher
+     * @param meterRegistry  the meter registry
+     */
+    public DetailsCoalescer(ClientService clientService, ChunkedFetcher chunkedFetcher, MeterRegistry meterRegistry) {
+        this.clientService = clientService;
+        this.chunkedFetcher = chunkedFetcher;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Gets the details of the ids, sharing the call with the concurrent callers asking for the same entity.
+     *
+     * @param <T>        the type parameter
+     * @param ids        the ids
+     * @param entityName the entity name
+     * @param clientId   the client id
+     * @param modelClass the model class
+     * @param idOf       the id of an element
+     * @return the details of the ids, or the failed response of a batch holding any of them
+     */
+    public <T> ResponseEntity<GenericResponse<List<T>>> getDetails(Collection<String> ids, String entityName,
+                                                                   int clientId, Class<T> modelClass,
+                                                                   Function<? super T, String> idOf) {
+        Set<String> requested = new LinkedHashSet<>(ids);
+        requested.removeIf(id -> id == null || id.isBlank());
+        if (!enabled || requested.isEmpty()) {
+            return chunkedFetcher.fetch(requested, entityName, clientId,
+                    chunk -> clientService.getDetails(chunk, entityName, clientId, modelClass), ChunkedFetcher::concat);
+        }
+        meterRegistry.counter("ats.coalescer.ids.requested", "entity", entityName).increment(requested.size());
+
+        Key key = new Key(clientId, entityName, modelClass);
+        Set<Batch<T>> batches = new LinkedHashSet<>();
+        List<Batch<T>> leading = new ArrayList<>();
+        synchronized (this) {
+            Map<String, Batch<?>> pending = pendingIds.computeIfAbsent(key, k -> new HashMap<>());
+            for (String id : requested) {
+                Batch<T> batch = (Batch<T>) pending.get(id);
+                if (batch == null) {
+                    batch = (Batch<T>) gathering.get(key);
+                    if (batch == null || batch.ids.size() >= maxBatchIds) {
+                        if (batch != null) {
+                            batch.full.countDown();
+                        }
+                        batch = new Batch<>();
+                        gathering.put(key, batch);
+                        leading.add(batch);
+                    }
+                    batch.ids.add(id);
+                    pending.put(id, batch);
+                }
+                batches.add(batch);
+            }
+        }
+        // the caller fetches the batches it opened before waiting on the others, so no two callers wait on each other
+        RuntimeException failure = null;
+        for (Batch<T> batch : leading) {
+            try {
+                fetch(key, batch, idOf);
+            } catch (RuntimeException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+
+        Map<String, List<T>> elements = new HashMap<>();
+        for (Batch<T> batch : batches) {
+            BatchResult<T> result = batch.result.join();
+            if (result.byId == null) {
+                return result.failed;
+            }
+            elements.putAll(result.byId);
+        }
+        List<T> data = new ArrayList<>();
+        requested.forEach(id -> data.addAll(elements.getOrDefault(id, List.of())));
+        return buildCuratelyResponse(HttpStatus.OK, data, null, "Successfully fetched %s".formatted(entityName),
+                Boolean.TRUE);
+    }
+
+    private <T> void fetch(Key key, Batch<T> batch, Function<? super T, String> idOf) {
+        try {
+            batch.full.await(windowMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<String> ids;
+        synchronized (this) {
+            if (gathering.get(key) == batch) {
+                gathering.remove(key);
+            }
+            ids = new ArrayList<>(batch.ids);
+        }
+        meterRegistry.counter("ats.coalescer.ids.fetched", "entity", key.entityName).increment(ids.size());
+        log.info("Fetching coalesced batch of {} {} ids for client {}", ids.size(), key.entityName, key.clientId);
+
+        BatchResult<T> result;
+        try {
+            Class<T> modelClass = (Class<T>) key.modelClass;
+            ResponseEntity<GenericResponse<List<T>>> response = chunkedFetcher.fetch(ids, key.entityName,
+                    key.clientId, chunk -> clientService.getDetails(chunk, key.entityName, key.clientId, modelClass),
+                    ChunkedFetcher::concat);
+            GenericResponse<List<T>> body = response.getBody();
+            if (body == null || !Boolean.TRUE.equals(body.getSuccess()) || body.getData() == null) {
+                result = new BatchResult<>(null, response);
+            } else {
+                Map<String, List<T>> byId = new HashMap<>();
+                body.getData().forEach(element -> byId.computeIfAbsent(idOf.apply(element),
+                        id -> new ArrayList<>()).add(element));
+                result = new BatchResult<>(byId, null);
+            }
+        } catch (RuntimeException e) {
+            finish(key, batch, ids);
+            batch.result.completeExceptionally(e);
+            throw e;
+        }
+        finish(key, batch, ids);
+        batch.result.complete(result);
+    }
+
+    private synchronized void finish(Key key, Batch<?> batch, List<String> ids) {
+        Map<String, Batch<?>> pending = pendingIds.get(key);
+        if (pending == null) {
+            return;
+        }
+        ids.forEach(id -> pending.remove(id, batch));
+        if (pending.isEmpty()) {
+            pendingIds.remove(key);
+        }
+    }
+
+    private record Key(int clientId, String entityName, Class<?> modelClass) {
+    }
+
+    private record BatchResult<T>(Map<String, List<T>> byId, ResponseEntity<GenericResponse<List<T>>> failed) {
+    }
+
+    private static final class Batch<T> {
+        private final Set<String> ids = new LinkedHashSet<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+        private final CompletableFuture<BatchResult<T>> result = new CompletableFuture<>();
+    }
+}
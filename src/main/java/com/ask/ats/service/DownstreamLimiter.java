@@ -0,0 +1,233 @@
+package com.ask.ats.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the number of calls in flight to each downstream. With virtual threads the executors no longer cap the
+ * concurrency, thousands of tasks can be running at once and would otherwise all hit the ats api, sql server and
+ * sns together.
+ * <p>
+ * Blocking callers wait on the semaphore of the downstream. Async callers never block a thread, they queue a
+ * pending acquire which is completed with a permit as soon as one is released.
+ */
+@Component
+public class DownstreamLimiter {
+
+    /**
+     * The downstreams bounded by the limiter.
+     */
+    public enum Downstream {
+        ATS_API, SQL_SERVER, SNS
+    }
+
+    @Value("${curately.downstream.acquireTimeoutSeconds}")
+    private long acquireTimeoutSeconds;
+
+    private final Map<Downstream, Semaphore> permits = new EnumMap<>(Downstream.class);
+    private final Map<Downstream, Deque<CompletableFuture<Permit>>> pendingAcquires = new EnumMap<>(Downstream.class);
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Instantiates a new Downstream limiter.
+     *
+     * @param atsApiPermits    the ats api permits
+     * @param sqlServerPermits the sql server permits
+     * @param snsPermits       the sns permits
+     * @param meterRegistry    the meter registry
+     */
+    public DownstreamLimiter(@Value("${curately.downstream.permits.atsApi}") int atsApiPermits,
+                             @Value("${curately.downstream.permits.sqlServer}") int sqlServerPermits,
+                             @Value("${curately.downstream.permits.sns}") int snsPermits,
+                             MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        permits.put(Downstream.ATS_API, new Semaphore(atsApiPermits, true));
+        permits.put(Downstream.SQL_SERVER, new Semaphore(sqlServerPermits, true));
+        permits.put(Downstream.SNS, new Semaphore(snsPermits, true));
+        permits.keySet().forEach(downstream -> pendingAcquires.put(downstream, new ArrayDeque<>()));
+        permits.forEach((downstream, semaphore) -> Gauge.builder("ats.downstream.permits.available", semaphore,
+                        Semaphore::availablePermits)
+                .tag("downstream", downstream.name().toLowerCase())
+                .register(meterRegistry));
+    }
+
+    /**
+     * Runs the call holding a permit of the downstream, blocking until one is available.
+     *
+     * @param <T>        the type parameter
+     * @param <E>        the exception type
+     * @param downstream the downstream
+     * @param call       the call
+     * @return the result of the call
+     * @throws E the exception thrown by the call
+     */
+    public <T, E extends Exception> T call(Downstream downstream, LimitedCall<T, E> call) throws E {
+        Permit permit = acquire(downstream);
+        try {
+            return call.call();
+        } finally {
+            permit.close();
+        }
+    }
+
+    /**
+     * Starts the async call once a permit of the downstream is available, without blocking the calling thread, and
+     * holds the permit until the future of the call completes.
+     *
+     * @param <T>        the type parameter
+     * @param downstream the downstream
+     * @param call       the call
+     * @return the future of the call, failed with an {@link IllegalStateException} when no permit became available
+     * within the acquire timeout
+     */
+    public <T> CompletableFuture<T> callAsync(Downstream downstream, Supplier<CompletableFuture<T>> call) {
+        return acquireAsync(downstream).thenCompose(permit -> {
+            CompletableFuture<T> future;
+            try {
+                future = call.get();
+            } catch (RuntimeException e) {
+                permit.close();
+                return CompletableFuture.failedFuture(e);
+            }
+            return future.whenComplete((result, ex) -> permit.close());
+        });
+    }
+
+    /**
+     * Acquires a permit of the downstream without blocking. The returned future completes with the permit once one
+     * is released, in the order the acquires were made, or fails with an {@link IllegalStateException} after the
+     * acquire timeout.
+     *
+     * @param downstream the downstream
+     * @return the future of the permit
+     */
+    public CompletableFuture<Permit> acquireAsync(Downstream downstream) {
+        Deque<CompletableFuture<Permit>> pending = pendingAcquires.get(downstream);
+        long startedNanos = System.nanoTime();
+        CompletableFuture<Permit> acquired = new CompletableFuture<>();
+        synchronized (pending) {
+            pending.addLast(acquired);
+        }
+        completePending(downstream);
+        return acquired.orTimeout(acquireTimeoutSeconds, TimeUnit.SECONDS)
+                .handle((permit, ex) -> {
+                    meterRegistry.timer("ats.downstream.permit.wait", "downstream", downstream.name().toLowerCase())
+                            .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+                    if (ex instanceof TimeoutException) {
+                        throw new IllegalStateException("Timed out after %d seconds waiting for a %s permit"
+                                .formatted(acquireTimeoutSeconds, downstream), ex);
+                    }
+                    if (ex != null) {
+                        throw new CompletionException(ex);
+                    }
+                    return permit;
+                });
+    }
+
+    /**
+     * Acquires a permit of the downstream, blocking until one is available. The permit must be closed once the
+     * call is done, closing it more than once has no effect.
+     *
+     * @param downstream the downstream
+     * @return the permit
+     * @throws IllegalStateException when no permit became available within the acquire timeout
+     */
+    public Permit acquire(Downstream downstream) {
+        Semaphore semaphore = permits.get(downstream);
+        long startedNanos = System.nanoTime();
+        try {
+            if (!semaphore.tryAcquire(acquireTimeoutSeconds, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out after %d seconds waiting for a %s permit"
+                        .formatted(acquireTimeoutSeconds, downstream));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a %s permit".formatted(downstream), e);
+        } finally {
+            meterRegistry.timer("ats.downstream.permit.wait", "downstream", downstream.name().toLowerCase())
+                    .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+        }
+        return permit(downstream, semaphore);
+    }
+
+    private Permit permit(Downstream downstream, Semaphore semaphore) {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+                completePending(downstream);
+            }
+        };
+    }
+
+    /**
+     * Hands the available permits to the pending async acquires. The acquires are completed outside the lock since
+     * completing one runs the call waiting on it.
+     */
+    private void completePending(Downstream downstream) {
+        Semaphore semaphore = permits.get(downstream);
+        Deque<CompletableFuture<Permit>> pending = pendingAcquires.get(downstream);
+        List<CompletableFuture<Permit>> granted = new ArrayList<>();
+        synchronized (pending) {
+            while (!pending.isEmpty()) {
+                if (pending.peekFirst().isDone()) {
+                    pending.pollFirst();
+                    continue;
+                }
+                if (!semaphore.tryAcquire()) {
+                    break;
+                }
+                granted.add(pending.pollFirst());
+            }
+        }
+        for (CompletableFuture<Permit> acquired : granted) {
+            Permit permit = permit(downstream, semaphore);
+            if (!acquired.complete(permit)) {
+                // timed out in the meantime
+                permit.close();
+            }
+        }
+    }
+
+    /**
+     * A permit of a downstream.
+     */
+    @FunctionalInterface
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * A call made while holding a downstream permit.
+     *
+     * @param <T> the type parameter
+     * @param <E> the exception type
+     */
+    @FunctionalInterface
+    public interface LimitedCall<T, E extends Exception> {
+        /**
+         * Call t.
+         *
+         * @return the t
+         * @throws E the e
+         */
+        T call() throws E;
+    }
+}
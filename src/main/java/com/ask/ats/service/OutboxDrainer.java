@@ -0,0 +1,198 @@
+package com.ask.ats.service;
+
+import com.ask.ats.model.OutboxEntry;
+import com.ask.ats.model.SnsPublishResult;
+import com.ask.ats.publisher.SnsAsyncPublisher;
+import com.ask.ats.repository.CuratelyRepository;
+import com.ask.ats.repository.OutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Ships the entries of the per tenant sns outbox with claim, lease and ack semantics. Entries are claimed under a
+ * lease owned by this node, published through the {@link SnsAsyncPublisher} and deleted once sns accepted them;
+ * entries sns rejected are released for the next drain, or parked once out of attempts. Only the outboxes of the
+ * tenants owned by this node under the {@link TenantShardCoordinator} are drained.
+ */
+@Service
+@Slf4j
+public class OutboxDrainer {
+
+    @Value("${aws.sns.outbox.claimSize}")
+    private int claimSize;
+
+    @Value("${aws.sns.outbox.leaseSeconds}")
+    private int leaseSeconds;
+
+    @Value("${aws.sns.outbox.maxAttempts}")
+    private int maxAttempts;
+
+    @Value("${aws.sns.outbox.maxRoundsPerDrain}")
+    private int maxRoundsPerDrain;
+
+    @Value("${curately.jobDiva.atsId}")
+    private Integer jobDivaAtsId;
+
+    @Value("${curately.bullhorn.atsId}")
+    private Integer bullhornAtsId;
+
+    @Value("${scheduled.agileOne.client}")
+    private int agileOneClient;
+
+    private final OutboxRepository outboxRepository;
+    private final CuratelyRepository curatelyRepository;
+    private final SnsAsyncPublisher snsAsyncPublisher;
+    private final MeterRegistry meterRegistry;
+    private final TenantShardCoordinator shardCoordinator;
+    private final String leaseOwner;
+
+    /**
+     * Instantiates a new Outbox drainer.
+     *
+     * @param outboxRepository   the outbox repository
+     * @param curatelyRepository the curately repository
+     * @param snsAsyncPublisher  the sns async publisher
+     * @param meterRegistry      the meter registry
+     * @param shardCoordinator   the shard coordinator
+     */
+    public OutboxDrainer(OutboxRepository outboxRepository, CuratelyRepository curatelyRepository,
+                         SnsAsyncPublisher snsAsyncPublisher, MeterRegistry meterRegistry,
+                         TenantShardCoordinator shardCoordinator) {
+        this.outboxRepository = outboxRepository;
+        this.curatelyRepository = curatelyRepository;
+        this.snsAsyncPublisher = snsAsyncPublisher;
+        this.meterRegistry = meterRegistry;
+        this.shardCoordinator = shardCoordinator;
+        this.leaseOwner = resolveHostName() + "-" + UUID.randomUUID();
+    }
+
+    /**
+     * Drains the outbox of every tenant owned by this node. Each round claims a batch for every tenant that still has entries and
+     * publishes all of them concurrently before acknowledging.
+     */
+    public void drain() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        int drained = 0;
+        try {
+            List<Integer> activeClientIds = shardCoordinator.ownedClientIds(new ArrayList<>(fetchOutboxClientIds()));
+            for (int round = 0; round < maxRoundsPerDrain && !activeClientIds.isEmpty(); round++) {
+                Map<Integer, List<OutboxEntry>> claimedByClient = new LinkedHashMap<>();
+                for (Integer clientId : activeClientIds) {
+                    List<OutboxEntry> claimed = claim(clientId);
+                    if (!claimed.isEmpty()) {
+                        claimedByClient.put(clientId, claimed);
+                    }
+                }
+
+                Map<Integer, CompletableFuture<Set<String>>> publishedByClient = new LinkedHashMap<>();
+                claimedByClient.forEach((clientId, claimed) -> publishedByClient.put(clientId, publish(claimed)));
+
+                for (Map.Entry<Integer, List<OutboxEntry>> entry : claimedByClient.entrySet()) {
+                    drained += settle(entry.getKey(), entry.getValue(), publishedByClient.get(entry.getKey()));
+                }
+
+                activeClientIds = claimedByClient.entrySet().stream()
+                        .filter(entry -> entry.getValue().size() >= claimSize)
+                        .map(Map.Entry::getKey)
+                        .toList();
+            }
+            if (drained > 0) {
+                log.info("Drained {} sns outbox entries", drained);
+            }
+        } catch (DataAccessException e) {
+            log.error("SQL error while draining the sns outbox", e);
+        } catch (Exception e) {
+            log.error("Unknown error while draining the sns outbox", e);
+        } finally {
+            sample.stop(meterRegistry.timer("ats.outbox.drain"));
+        }
+    }
+
+    private List<OutboxEntry> claim(int clientId) {
+        try {
+            return outboxRepository.claim(clientId, leaseOwner, claimSize, leaseSeconds);
+        } catch (DataAccessException e) {
+            log.error("SQL error while claiming sns outbox entries for client {}", clientId, e);
+            return Collections.emptyList();
+        }
+    }
+
+    private CompletableFuture<Set<String>> publish(List<OutboxEntry> claimed) {
+        Map<String, List<PublishBatchRequestEntry>> entriesByTopic = claimed.stream()
+                .collect(Collectors.groupingBy(OutboxEntry::getTopicArn,
+                        Collectors.mapping(OutboxEntry::getEntry, Collectors.toList())));
+        List<CompletableFuture<SnsPublishResult>> results = entriesByTopic.entrySet().stream()
+                .map(entry -> snsAsyncPublisher.publish(entry.getKey(), entry.getValue()))
+                .toList();
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> results.stream()
+                        .map(CompletableFuture::join)
+                        .flatMap(result -> result.getDroppedIds().stream())
+                        .collect(Collectors.toSet()));
+    }
+
+    private int settle(int clientId, List<OutboxEntry> claimed, CompletableFuture<Set<String>> published) {
+        Set<String> droppedIds;
+        try {
+            droppedIds = published.join();
+        } catch (Exception e) {
+            log.error("Error publishing {} sns outbox entries of client {}", claimed.size(), clientId, e);
+            droppedIds = claimed.stream().map(entry -> entry.getEntry().id()).collect(Collectors.toSet());
+        }
+
+        Set<String> failedEntryIds = droppedIds;
+        List<Long> ackIds = claimed.stream()
+                .filter(entry -> !failedEntryIds.contains(entry.getEntry().id()))
+                .map(OutboxEntry::getId)
+                .toList();
+        List<Long> releaseIds = claimed.stream()
+                .filter(entry -> failedEntryIds.contains(entry.getEntry().id()))
+                .map(OutboxEntry::getId)
+                .toList();
+
+        if (!ackIds.isEmpty()) {
+            outboxRepository.ack(clientId, ackIds);
+            meterRegistry.counter("ats.outbox.entries", "stage", "acked").increment(ackIds.size());
+        }
+        if (!releaseIds.isEmpty()) {
+            outboxRepository.release(clientId, releaseIds, maxAttempts);
+            meterRegistry.counter("ats.outbox.entries", "stage", "released").increment(releaseIds.size());
+            log.warn("Released {} sns outbox entries of client {} for a later drain", releaseIds.size(), clientId);
+        }
+        return ackIds.size();
+    }
+
+    private Set<Integer> fetchOutboxClientIds() {
+        Set<Integer> clientIds = new LinkedHashSet<>();
+        clientIds.addAll(curatelyRepository.fetchClientIdsByAts(bullhornAtsId));
+        clientIds.addAll(curatelyRepository.fetchClientIdsByAts(jobDivaAtsId));
+        clientIds.add(agileOneClient);
+        return clientIds;
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.ask.ats.service;
+
+import com.ask.ats.model.GenericResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Pages through the ats calls returning one page per call until an empty page. The next {@code prefetchPages}
+ * pages are fetched in parallel instead of one after another, every page is handed over as soon as it lands, and
+ * no page past the first empty one is asked for once it has arrived.
+ */
+@Slf4j
+@Component
+public class PagedFetcher {
+
+    private final int prefetchPages;
+    private final Executor chunkExecutor;
+
+    /**
+     * Instantiates a new Paged fetcher.
+     *
+     * @param prefetchPages the number of pages fetched at once
+     * @param chunkExecutor the chunk executor
+     */
+    public PagedFetcher(@Value("${atsService.paging.prefetchPages}") int prefetchPages,
+                        @Qualifier("chunkExecutor") Executor chunkExecutor) {
+        this.prefetchPages = Math.max(1, prefetchPages);
+        this.chunkExecutor = chunkExecutor;
+    }
+
+    /**
+     * Fetches the pages from the first page on until a page comes back empty. The consumer is called by one page
+     * at a time, in the order the pages land, for every page before the first empty one. When a page fails no
+     * further page is asked for.
+     *
+     * @param <T>        the type parameter
+     * @param entityName the entity name
+     * @param clientId   the client id
+     * @param firstPage  the first page
+     * @param fetchPage  the call fetching a page
+     * @param consumer   the consumer of the data of a page
+     * @return the response of the first empty page, or the response of a failed page
+     */
+    public <T> ResponseEntity<GenericResponse<List<T>>> fetchPages(
+            String entityName, int clientId, int firstPage,
+            IntFunction<ResponseEntity<GenericResponse<List<T>>>> fetchPage, Consumer<List<T>> consumer) {
+        AtomicInteger nextPage = new AtomicInteger(firstPage);
+        AtomicInteger emptyPage = new AtomicInteger(Integer.MAX_VALUE);
+        AtomicReference<ResponseEntity<GenericResponse<List<T>>>> failed = new AtomicReference<>();
+        AtomicReference<ResponseEntity<GenericResponse<List<T>>>> last = new AtomicReference<>();
+        AtomicInteger consumedPages = new AtomicInteger();
+        Object lock = new Object();
+
+        Runnable lane = () -> {
+            int page;
+            while (failed.get() == null && (page = nextPage.getAndIncrement()) < emptyPage.get()) {
+                ResponseEntity<GenericResponse<List<T>>> response = fetchPage.apply(page);
+                GenericResponse<List<T>> body = response.getBody();
+                if (body == null || !Boolean.TRUE.equals(body.getSuccess()) || body.getData() == null) {
+                    failed.compareAndSet(null, response);
+                    return;
+                }
+                if (body.getData().isEmpty()) {
+                    emptyPage.accumulateAndGet(page, Math::min);
+                    last.set(response);
+                    return;
+                }
+                // a page past an empty one already landed was fetched speculatively and is dropped
+                synchronized (lock) {
+                    if (page < emptyPage.get() && failed.get() == null) {
+                        consumer.accept(body.getData());
+                        consumedPages.incrementAndGet();
+                    }
+                }
+            }
+        };
+
+        CompletableFuture<?>[] lanes = new CompletableFuture[prefetchPages];
+        for (int i = 0; i < prefetchPages; i++) {
+            lanes[i] = CompletableFuture.runAsync(lane, chunkExecutor);
+        }
+        try {
+            CompletableFuture.allOf(lanes).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+
+        if (failed.get() != null) {
+            log.error("Failed paging {} for client {} after {} pages", entityName, clientId, consumedPages.get());
+            return failed.get();
+        }
+        log.info("Fetched {} pages of {} for client {}", consumedPages.get(), entityName, clientId);
+        return last.get();
+    }
+}
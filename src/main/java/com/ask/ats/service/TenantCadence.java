@@ -0,0 +1,155 @@
+package com.ask.ats.service;
+
+import com.ask.ats.repository.CuratelyRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.ask.ats.utils.Constants.JOB_AGILE_ONE_ASSIGNMENTS;
+import static com.ask.ats.utils.Constants.JOB_AGILE_ONE_JOBS;
+import static com.ask.ats.utils.Constants.JOB_BULLHORN_EVENTS;
+import static com.ask.ats.utils.Constants.JOB_JOB_DIVA_CANDIDATE_NOTES;
+
+/**
+ * Adapts how often each tenant is polled to the number of events its recent polls yielded. The average yield is an
+ * exponentially weighted moving average of the events per poll and maps linearly onto the interval bounds: a tenant
+ * at or above the busy threshold is polled every min interval, the cron of the job when it is zero, an idle tenant
+ * every max interval. The interval shortens again as soon as a poll yields more than the average.
+ * <p>
+ * The average of a tenant is seeded from the events counts its previous polls persisted, the SubscriptionListEvents
+ * rows of the bullhorn events, the JobDivaEvents rows of the candidate notes and the scheduleJobActivity rows of the
+ * agile one jobs, so it survives restarts and shard moves. The job diva applicants and agent search persist no
+ * yield, their average starts at the busy threshold on every node, so a tenant is polled on every tick after a
+ * restart and only slows down gradually as its polls come back empty.
+ */
+@Component
+@Slf4j
+public class TenantCadence {
+
+    @Value("${scheduled.cadence.enabled}")
+    private boolean enabled;
+
+    @Value("${scheduled.cadence.minIntervalMinutes}")
+    private long minIntervalMinutes;
+
+    @Value("${scheduled.cadence.maxIntervalMinutes}")
+    private long maxIntervalMinutes;
+
+    @Value("${scheduled.cadence.busyEventsPerPoll}")
+    private double busyEventsPerPoll;
+
+    @Value("${scheduled.cadence.smoothing}")
+    private double smoothing;
+
+    @Value("${scheduled.cadence.seedPolls}")
+    private int seedPolls;
+
+    private final CuratelyRepository curatelyRepository;
+    private final MeterRegistry meterRegistry;
+    private final Map<CadenceKey, CadenceState> states = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Tenant cadence.
+     *
+     * @param curatelyRepository the curately repository
+     * @param meterRegistry      the meter registry
+     */
+    public TenantCadence(CuratelyRepository curatelyRepository, MeterRegistry meterRegistry) {
+        this.curatelyRepository = curatelyRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Is the tenant due for another poll of the job.
+     *
+     * @param jobName  the job name
+     * @param clientId the client id
+     * @return the boolean, always true when the adaptive cadence is disabled or the tenant has no poll yet
+     */
+    public boolean isDue(String jobName, int clientId) {
+        if (!enabled) {
+            return true;
+        }
+        CadenceState state = states.computeIfAbsent(new CadenceKey(jobName, clientId), this::seed);
+        return System.nanoTime() >= state.nextDueNanos;
+    }
+
+    /**
+     * Records the events yielded by a successful poll and moves the next due time of the tenant accordingly.
+     *
+     * @param jobName  the job name
+     * @param clientId the client id
+     * @param events   the events
+     */
+    public void record(String jobName, int clientId, int events) {
+        if (!enabled) {
+            return;
+        }
+        CadenceState state = states.compute(new CadenceKey(jobName, clientId), (key, previous) -> {
+            double average = previous == null ? busyEventsPerPoll : previous.averageEvents;
+            average = smoothing * events + (1 - smoothing) * average;
+            Duration interval = intervalOf(average);
+            return new CadenceState(average, interval, System.nanoTime() + interval.toNanos());
+        });
+        meterRegistry.timer("ats.scheduler.cadence.interval", "job", jobName).record(state.interval);
+        log.debug("Client {} yielded {} events for {}, average {}, next poll in {}", clientId, events, jobName,
+                String.format("%.2f", state.averageEvents), state.interval);
+    }
+
+    private Duration intervalOf(double average) {
+        double quietness = 1 - Math.min(1, average / busyEventsPerPoll);
+        Duration min = Duration.ofMinutes(minIntervalMinutes);
+        Duration range = Duration.ofMinutes(Math.max(minIntervalMinutes, maxIntervalMinutes)).minus(min);
+        return min.plus(range.multipliedBy(Math.round(quietness * 1000)).dividedBy(1000));
+    }
+
+    private CadenceState seed(CadenceKey key) {
+        List<Map.Entry<Timestamp, Integer>> polls;
+        try {
+            polls = persistedPolls(key);
+        } catch (Exception e) {
+            log.warn("Error seeding the cadence of {} for client {}, polling it now", key.jobName(), key.clientId(), e);
+            polls = List.of();
+        }
+        if (polls.isEmpty()) {
+            return new CadenceState(busyEventsPerPoll, Duration.ZERO, 0);
+        }
+        double average = busyEventsPerPoll;
+        for (int i = polls.size() - 1; i >= 0; i--) {
+            average = smoothing * polls.get(i).getValue() + (1 - smoothing) * average;
+        }
+        Duration interval = intervalOf(average);
+        long sinceLastPollNanos = Duration.ofMillis(System.currentTimeMillis() - polls.get(0).getKey().getTime())
+                .toNanos();
+        log.info("Seeded the cadence of {} for client {} from {} polls, average {}, interval {}", key.jobName(),
+                key.clientId(), polls.size(), String.format("%.2f", average), interval);
+        return new CadenceState(average, interval, System.nanoTime() - sinceLastPollNanos + interval.toNanos());
+    }
+
+    private List<Map.Entry<Timestamp, Integer>> persistedPolls(CadenceKey key) {
+        return switch (key.jobName()) {
+            case JOB_BULLHORN_EVENTS ->
+                    curatelyRepository.fetchRecentSubscriptionEventCounts(key.clientId(), seedPolls);
+            case JOB_JOB_DIVA_CANDIDATE_NOTES ->
+                    curatelyRepository.fetchRecentJobsEventCounts(key.clientId(), "NewUpdatedJobRecords", seedPolls);
+            case JOB_AGILE_ONE_JOBS ->
+                    curatelyRepository.fetchRecentActivityEventCounts(key.clientId(), "AgileOneJob", seedPolls);
+            case JOB_AGILE_ONE_ASSIGNMENTS ->
+                    curatelyRepository.fetchRecentActivityEventCounts(key.clientId(), "AgileOneAssignment", seedPolls);
+            default -> List.of();
+        };
+    }
+
+    private record CadenceKey(String jobName, int clientId) {
+    }
+
+    private record CadenceState(double averageEvents, Duration interval, long nextDueNanos) {
+    }
+}
@@ -0,0 +1,234 @@
+package com.ask.ats.service;
+
+import com.ask.ats.model.TenantRunSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Fans a scheduled job out over its tenants with bounded parallelism, so a cycle takes as long as its slowest
+ * tenants rather than the sum of all of them. A tenant counts as done once the future returned by its task
+ * completes, async publishing included, or once it exceeds the per tenant timeout. Tenants whose previous run of
+ * the same job is still in flight are left to the {@link TenantRunGuard}, tenants owned by another scheduler node
+ * are left out by the {@link TenantShardCoordinator} and tenants not yet due by their {@link TenantCadence}.
+ */
+@Service
+@Slf4j
+public class TenantFanOutExecutor {
+
+    private static final int SLOWEST_TENANTS_LOGGED = 3;
+
+    @Value("${scheduled.fanOut.parallelism}")
+    private int parallelism;
+
+    @Value("${scheduled.fanOut.tenantTimeoutSeconds}")
+    private long tenantTimeoutSeconds;
+
+    private final Executor tenantExecutor;
+    private final MeterRegistry meterRegistry;
+    private final TenantRunGuard runGuard;
+    private final TenantShardCoordinator shardCoordinator;
+    private final TenantCadence tenantCadence;
+
+    /**
+     * Instantiates a new Tenant fan out executor.
+     *
+     * @param tenantExecutor   the tenant executor
+     * @param meterRegistry    the meter registry
+     * @param runGuard         the run guard
+     * @param shardCoordinator the shard coordinator
+     * @param tenantCadence    the tenant cadence
+     */
+    public TenantFanOutExecutor(@Qualifier("tenantExecutor") Executor tenantExecutor, MeterRegistry meterRegistry,
+                                TenantRunGuard runGuard, TenantShardCoordinator shardCoordinator,
+                                TenantCadence tenantCadence) {
+        this.tenantExecutor = tenantExecutor;
+        this.meterRegistry = meterRegistry;
+        this.runGuard = runGuard;
+        this.shardCoordinator = shardCoordinator;
+        this.tenantCadence = tenantCadence;
+    }
+
+    /**
+     * Runs the task for every client owned by this node and due for a poll, keeping at most the configured number
+     * of tenants in flight. Returns without waiting for the tenants.
+     *
+     * @param jobName    the job name
+     * @param clientIds  the client ids
+     * @param tenantTask the tenant task, returning the future number of events of the client
+     * @return the future completed with the run summary once every tenant has completed or timed out
+     */
+    public CompletableFuture<TenantRunSummary> fanOut(String jobName, List<Integer> clientIds,
+                                                      IntFunction<CompletableFuture<Integer>> tenantTask) {
+        List<Integer> ownedClientIds = shardCoordinator.ownedClientIds(clientIds);
+        List<Integer> dueClientIds = ownedClientIds.stream()
+                .filter(clientId -> tenantCadence.isDue(jobName, clientId))
+                .toList();
+        FanOutRun run = new FanOutRun(jobName, dueClientIds, ownedClientIds.size() - dueClientIds.size(), tenantTask);
+        if (dueClientIds.isEmpty()) {
+            run.complete();
+            return run.summary;
+        }
+        for (int i = 0; i < Math.min(parallelism, dueClientIds.size()); i++) {
+            run.launchNext();
+        }
+        return run.summary;
+    }
+
+    private enum Outcome {
+        SUCCESS, FAILED, TIMED_OUT, SKIPPED
+    }
+
+    private record TenantResult(Outcome outcome, long latencyMillis, int events) {
+    }
+
+    private final class FanOutRun {
+        private final String jobName;
+        private final IntFunction<CompletableFuture<Integer>> tenantTask;
+        private final int deferred;
+        private final Queue<Integer> pending;
+        private final AtomicInteger remaining;
+        private final Map<Integer, TenantResult> results = new ConcurrentHashMap<>();
+        private final CompletableFuture<TenantRunSummary> summary = new CompletableFuture<>();
+        private final long startedNanos = System.nanoTime();
+
+        private FanOutRun(String jobName, List<Integer> clientIds, int deferred,
+                          IntFunction<CompletableFuture<Integer>> tenantTask) {
+            this.jobName = jobName;
+            this.tenantTask = tenantTask;
+            this.deferred = deferred;
+            this.pending = new ConcurrentLinkedQueue<>(clientIds);
+            this.remaining = new AtomicInteger(clientIds.size());
+        }
+
+        private void launchNext() {
+            Integer next;
+            while ((next = pending.poll()) != null) {
+                int clientId = next;
+                if (runGuard.tryAcquire(jobName, clientId, () -> fanOut(jobName, List.of(clientId), tenantTask))) {
+                    launch(clientId);
+                    return;
+                }
+                results.put(clientId, new TenantResult(Outcome.SKIPPED, 0, 0));
+                if (remaining.decrementAndGet() == 0) {
+                    complete();
+                    return;
+                }
+            }
+        }
+
+        private void launch(int clientId) {
+            long tenantStartedNanos = System.nanoTime();
+            CompletableFuture<Integer> run = CompletableFuture.supplyAsync(() -> tenantTask.apply(clientId), tenantExecutor)
+                    .thenCompose(Function.identity());
+            // the slot is held until the run really ends, a timed out tenant keeps it until its publishing settles.
+            // Releasing and launching the next tenant can block on sql for the run lease, so neither runs on the
+            // thread completing the future, an sdk response thread or the shared orTimeout delayer
+            run.whenCompleteAsync((events, ex) -> runGuard.release(jobName, clientId), tenantExecutor);
+            run.copy()
+                    .orTimeout(tenantTimeoutSeconds, TimeUnit.SECONDS)
+                    .whenCompleteAsync((events, ex) -> {
+                        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - tenantStartedNanos);
+                        Outcome outcome = outcomeOf(ex);
+                        if (outcome == Outcome.TIMED_OUT) {
+                            log.error("Scheduled {} for client {} timed out after {} ms", jobName, clientId,
+                                    latencyMillis);
+                        } else if (outcome == Outcome.FAILED) {
+                            log.error("Scheduled {} failed for client {} after {} ms", jobName, clientId,
+                                    latencyMillis, ex);
+                        }
+                        results.put(clientId, new TenantResult(outcome, latencyMillis,
+                                events == null ? 0 : events));
+                        if (outcome == Outcome.SUCCESS) {
+                            tenantCadence.record(jobName, clientId, events == null ? 0 : events);
+                        }
+                        meterRegistry.timer("ats.scheduler.tenant.duration", "job", jobName,
+                                        "outcome", outcome.name().toLowerCase())
+                                .record(latencyMillis, TimeUnit.MILLISECONDS);
+
+                        if (remaining.decrementAndGet() == 0) {
+                            complete();
+                        } else {
+                            launchNext();
+                        }
+                    }, tenantExecutor);
+        }
+
+        private Outcome outcomeOf(Throwable ex) {
+            if (ex == null) {
+                return Outcome.SUCCESS;
+            }
+            Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            return ex instanceof TimeoutException || cause instanceof TimeoutException
+                    ? Outcome.TIMED_OUT : Outcome.FAILED;
+        }
+
+        private void complete() {
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
+            Map<Integer, Long> latencies = new LinkedHashMap<>();
+            List<Integer> failed = new ArrayList<>();
+            List<Integer> timedOut = new ArrayList<>();
+            List<Integer> skipped = new ArrayList<>();
+            long events = 0;
+            for (Map.Entry<Integer, TenantResult> entry : results.entrySet()) {
+                if (entry.getValue().outcome() == Outcome.SKIPPED) {
+                    skipped.add(entry.getKey());
+                    continue;
+                }
+                latencies.put(entry.getKey(), entry.getValue().latencyMillis());
+                events += entry.getValue().events();
+                if (entry.getValue().outcome() == Outcome.FAILED) {
+                    failed.add(entry.getKey());
+                } else if (entry.getValue().outcome() == Outcome.TIMED_OUT) {
+                    timedOut.add(entry.getKey());
+                }
+            }
+
+            TenantRunSummary runSummary = TenantRunSummary.builder()
+                    .jobName(jobName)
+                    .tenants(results.size())
+                    .succeeded(results.size() - failed.size() - timedOut.size() - skipped.size())
+                    .failed(failed.size())
+                    .timedOut(timedOut.size())
+                    .skipped(skipped.size())
+                    .deferred(deferred)
+                    .events(events)
+                    .durationMillis(durationMillis)
+                    .tenantLatencyMillis(latencies)
+                    .failedClientIds(failed)
+                    .timedOutClientIds(timedOut)
+                    .skippedClientIds(skipped)
+                    .build();
+            meterRegistry.timer("ats.scheduler.run.duration", "job", jobName)
+                    .record(durationMillis, TimeUnit.MILLISECONDS);
+
+            List<Map.Entry<Integer, Long>> slowest = latencies.entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Long>comparingByValue(Comparator.reverseOrder()))
+                    .limit(SLOWEST_TENANTS_LOGGED)
+                    .toList();
+            log.info("Scheduled {} completed for {} clients in {} ms: {} succeeded, {} failed {}, {} timed out {}, "
+                            + "{} skipped {}, {} deferred, {} events, slowest clients {}", jobName,
+                    runSummary.getTenants(), durationMillis, runSummary.getSucceeded(), failed.size(), failed,
+                    timedOut.size(), timedOut, skipped.size(), skipped, deferred, events, slowest);
+            summary.complete(runSummary);
+        }
+    }
+}
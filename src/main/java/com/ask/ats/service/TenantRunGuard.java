@@ -0,0 +1,138 @@
+package com.ask.ats.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps at most one run of a scheduled job in flight per tenant. A tick arriving while the previous run of the same
+ * job and tenant is still going, async publishing included, is either skipped or, when coalescing is enabled,
+ * folded into a single trailing run started as soon as the previous run completes. When sharding is enabled the
+ * slot also holds the lease of the run from the {@link TenantShardCoordinator}, so no other node runs the same job
+ * and tenant meanwhile.
+ */
+@Component
+@Slf4j
+public class TenantRunGuard {
+
+    @Value("${scheduled.runGuard.coalesce}")
+    private boolean coalesce;
+
+    private final MeterRegistry meterRegistry;
+    private final TenantShardCoordinator shardCoordinator;
+    private final Map<RunKey, RunSlot> slots = new ConcurrentHashMap<>();
+    private final Set<String> registeredJobs = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Instantiates a new Tenant run guard.
+     *
+     * @param meterRegistry    the meter registry
+     * @param shardCoordinator the shard coordinator
+     */
+    public TenantRunGuard(MeterRegistry meterRegistry, TenantShardCoordinator shardCoordinator) {
+        this.meterRegistry = meterRegistry;
+        this.shardCoordinator = shardCoordinator;
+    }
+
+    /**
+     * Claims the run slot of the job for the client.
+     *
+     * @param jobName     the job name
+     * @param clientId    the client id
+     * @param trailingRun the run to start once the slot frees up, used when the slot is taken and coalescing is on
+     * @return true when the caller owns the slot and must {@link #release(String, int)} it once the run completes
+     */
+    public boolean tryAcquire(String jobName, int clientId, Runnable trailingRun) {
+        registerBacklogGauges(jobName);
+        RunSlot slot = slots.computeIfAbsent(new RunKey(jobName, clientId), key -> new RunSlot());
+        synchronized (slot) {
+            if (!slot.running) {
+                if (!shardCoordinator.tryLease(jobName, clientId)) {
+                    tick(jobName, "leased");
+                    return false;
+                }
+                slot.running = true;
+                tick(jobName, "started");
+                return true;
+            }
+            if (coalesce) {
+                boolean alreadyPending = slot.trailingRun != null;
+                slot.trailingRun = trailingRun;
+                tick(jobName, "coalesced");
+                log.info("Scheduled {} for client {} still in flight, {}", jobName, clientId,
+                        alreadyPending ? "trailing run already pending" : "queued a trailing run");
+            } else {
+                tick(jobName, "skipped");
+                log.info("Scheduled {} for client {} still in flight, skipping tick", jobName, clientId);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Releases the run slot and the lease of the job for the client and starts the coalesced trailing run, if any.
+     *
+     * @param jobName  the job name
+     * @param clientId the client id
+     */
+    public void release(String jobName, int clientId) {
+        RunSlot slot = slots.get(new RunKey(jobName, clientId));
+        if (slot == null) {
+            return;
+        }
+        Runnable trailingRun;
+        synchronized (slot) {
+            shardCoordinator.releaseLease(jobName, clientId);
+            slot.running = false;
+            trailingRun = slot.trailingRun;
+            slot.trailingRun = null;
+        }
+        if (trailingRun != null) {
+            log.info("Starting coalesced run of {} for client {}", jobName, clientId);
+            trailingRun.run();
+        }
+    }
+
+    private void tick(String jobName, String outcome) {
+        meterRegistry.counter("ats.scheduler.ticks", "job", jobName, "outcome", outcome).increment();
+    }
+
+    private void registerBacklogGauges(String jobName) {
+        if (registeredJobs.add(jobName)) {
+            Gauge.builder("ats.scheduler.backlog", this, guard -> guard.inFlight(jobName))
+                    .tag("job", jobName)
+                    .tag("state", "running")
+                    .register(meterRegistry);
+            Gauge.builder("ats.scheduler.backlog", this, guard -> guard.pending(jobName))
+                    .tag("job", jobName)
+                    .tag("state", "pending")
+                    .register(meterRegistry);
+        }
+    }
+
+    private long inFlight(String jobName) {
+        return slots.entrySet().stream()
+                .filter(entry -> entry.getKey().jobName().equals(jobName) && entry.getValue().running)
+                .count();
+    }
+
+    private long pending(String jobName) {
+        return slots.entrySet().stream()
+                .filter(entry -> entry.getKey().jobName().equals(jobName) && entry.getValue().trailingRun != null)
+                .count();
+    }
+
+    private record RunKey(String jobName, int clientId) {
+    }
+
+    private static final class RunSlot {
+        private volatile boolean running;
+        private volatile Runnable trailingRun;
+    }
+}
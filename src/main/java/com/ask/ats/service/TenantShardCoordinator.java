@@ -0,0 +1,235 @@
+package com.ask.ats.service;
+
+import com.ask.ats.repository.SchedulerNodeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits the tenants between the running scheduler nodes. Every node heartbeats into the central curately
+ * database and builds a consistent hash ring of the nodes seen alive within the node ttl, a tenant is polled only
+ * by the node owning its point on the ring. When a node stops heartbeating its tenants move to the next nodes on
+ * the ring once its heartbeat expires, a joining node takes over only the tenants it now owns.
+ * <p>
+ * A node that cannot renew its own heartbeat within the node ttl owns no tenant, so it does not keep polling
+ * tenants the other nodes have already taken over. When sharding is disabled the node owns every tenant.
+ * <p>
+ * Ownership is only decided at the start of a tick while a run can outlast a rebalance, so every tenant run also
+ * holds a lease of its job and tenant in the central database. A node whose view of the ring differs, or that took
+ * the tenant over mid run, finds the lease taken and skips the tenant. Held leases are renewed with the heartbeat
+ * and expire with the node ttl when their node dies.
+ */
+@Service
+@Slf4j
+public class TenantShardCoordinator {
+
+    @Value("${scheduled.sharding.enabled}")
+    private boolean enabled;
+
+    @Value("${scheduled.sharding.nodeTtlSeconds}")
+    private int nodeTtlSeconds;
+
+    @Value("${scheduled.sharding.virtualNodes}")
+    private int virtualNodes;
+
+    @Value("${scheduled.sharding.purgeAfterSeconds}")
+    private int purgeAfterSeconds;
+
+    private final SchedulerNodeRepository schedulerNodeRepository;
+    private final String hostName;
+    private final String nodeId;
+    private final Set<Map.Entry<String, Integer>> heldLeases = ConcurrentHashMap.newKeySet();
+
+    private volatile List<String> liveNodeIds = Collections.emptyList();
+    private volatile NavigableMap<Long, String> ring = Collections.emptyNavigableMap();
+    private volatile long lastHeartbeatNanos;
+
+    /**
+     * Instantiates a new Tenant shard coordinator.
+     *
+     * @param schedulerNodeRepository the scheduler node repository
+     * @param meterRegistry           the meter registry
+     */
+    public TenantShardCoordinator(SchedulerNodeRepository schedulerNodeRepository, MeterRegistry meterRegistry) {
+        this.schedulerNodeRepository = schedulerNodeRepository;
+        this.hostName = resolveHostName();
+        this.nodeId = hostName + "-" + UUID.randomUUID();
+        Gauge.builder("ats.shard.nodes", this, coordinator -> coordinator.liveNodeIds.size())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Renews the heartbeat of this node and rebuilds the hash ring when the live nodes changed.
+     */
+    public void heartbeat() {
+        try {
+            schedulerNodeRepository.heartbeat(nodeId, hostName);
+            lastHeartbeatNanos = System.nanoTime();
+            schedulerNodeRepository.renewLeases(nodeId, List.copyOf(heldLeases), nodeTtlSeconds);
+
+            List<String> nodeIds = new ArrayList<>(schedulerNodeRepository.fetchLiveNodeIds(nodeTtlSeconds));
+            if (!nodeIds.contains(nodeId)) {
+                nodeIds.add(nodeId);
+            }
+            Collections.sort(nodeIds);
+            if (!nodeIds.equals(liveNodeIds)) {
+                ring = buildRing(nodeIds);
+                log.info("Scheduler nodes changed from {} to {}, rebalanced tenants, this node is {}", liveNodeIds,
+                        nodeIds, nodeId);
+                liveNodeIds = List.copyOf(nodeIds);
+            }
+            schedulerNodeRepository.purgeExpired(purgeAfterSeconds);
+        } catch (Exception e) {
+            log.error("Error renewing heartbeat of scheduler node {}", nodeId, e);
+        }
+    }
+
+    /**
+     * Keeps the client ids owned by this node.
+     *
+     * @param clientIds the client ids
+     * @return the owned client ids, all of them when sharding is disabled
+     */
+    public List<Integer> ownedClientIds(List<Integer> clientIds) {
+        if (!enabled) {
+            return clientIds;
+        }
+        if (!isHeartbeatCurrent()) {
+            log.warn("Scheduler node {} has no current heartbeat, skipping {} clients", nodeId, clientIds.size());
+            return Collections.emptyList();
+        }
+        NavigableMap<Long, String> currentRing = ring;
+        return clientIds.stream()
+                .filter(clientId -> nodeId.equals(ownerOf(currentRing, clientId)))
+                .toList();
+    }
+
+    /**
+     * Takes the lease of the job run of the client, held until {@link #releaseLease(String, int)}. A lease that
+     * cannot be taken, or a database error, counts as held by another node.
+     *
+     * @param jobName  the job name
+     * @param clientId the client id
+     * @return true when this node holds the lease, always when sharding is disabled
+     */
+    public boolean tryLease(String jobName, int clientId) {
+        if (!enabled) {
+            return true;
+        }
+        try {
+            if (schedulerNodeRepository.tryLease(jobName, clientId, nodeId, nodeTtlSeconds)) {
+                heldLeases.add(Map.entry(jobName, clientId));
+                return true;
+            }
+            log.info("Scheduled {} for client {} is leased by another node, skipping", jobName, clientId);
+        } catch (Exception e) {
+            log.error("Error leasing scheduled {} for client {} to node {}", jobName, clientId, nodeId, e);
+        }
+        return false;
+    }
+
+    /**
+     * Releases the lease of the job run of the client. When the release fails the lease is no longer renewed and
+     * expires with the node ttl.
+     *
+     * @param jobName  the job name
+     * @param clientId the client id
+     */
+    public void releaseLease(String jobName, int clientId) {
+        if (!enabled || !heldLeases.remove(Map.entry(jobName, clientId))) {
+            return;
+        }
+        try {
+            schedulerNodeRepository.releaseLease(jobName, clientId, nodeId);
+        } catch (Exception e) {
+            log.error("Error releasing the lease of scheduled {} for client {} held by node {}", jobName, clientId,
+                    nodeId, e);
+        }
+    }
+
+    /**
+     * Is sharding enabled.
+     *
+     * @return the boolean
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Removes this node from the live nodes so the others take over its tenants without waiting for the ttl.
+     */
+    @PreDestroy
+    public void deregister() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            schedulerNodeRepository.delete(nodeId);
+            log.info("Deregistered scheduler node {}", nodeId);
+        } catch (Exception e) {
+            log.error("Error deregistering scheduler node {}", nodeId, e);
+        }
+    }
+
+    private boolean isHeartbeatCurrent() {
+        return lastHeartbeatNanos != 0
+                && System.nanoTime() - lastHeartbeatNanos < TimeUnit.SECONDS.toNanos(nodeTtlSeconds);
+    }
+
+    private NavigableMap<Long, String> buildRing(List<String> nodeIds) {
+        TreeMap<Long, String> points = new TreeMap<>();
+        for (String id : new TreeSet<>(nodeIds)) {
+            for (int i = 0; i < virtualNodes; i++) {
+                points.put(hash(id + "#" + i), id);
+            }
+        }
+        return Collections.unmodifiableNavigableMap(points);
+    }
+
+    private static String ownerOf(NavigableMap<Long, String> ring, int clientId) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> owner = ring.ceilingEntry(hash("client-" + clientId));
+        return owner != null ? owner.getValue() : ring.firstEntry().getValue();
+    }
+
+    private static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown-host";
+        }
+    }
+}
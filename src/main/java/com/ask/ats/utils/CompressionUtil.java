@@ -1,16 +1,88 @@
 package com.ask.ats.utils;
 
+import com.ask.ats.codec.DeflateCodec;
+import com.ask.ats.codec.EventCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Base64;
-import java.util.zip.DeflaterOutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 public class CompressionUtil {
+
+    /**
+     * Pooled buffers grown beyond this size are dropped after use rather than retained.
+     */
+    private static final int MAX_RETAINED_BUFFER_BYTES = 1024 * 1024;
+
+    private static final int INITIAL_BUFFER_BYTES = 64 * 1024;
+
+    private static final EventCodec DEFLATE = new DeflateCodec();
+
+    /**
+     * Buffers shared between the encoding threads, bounded by the number of cores so virtual threads do not each
+     * retain one.
+     */
+    private static final BlockingQueue<ByteArrayOutputStream> BUFFERS =
+            new ArrayBlockingQueue<>(Runtime.getRuntime().availableProcessors());
+
+    private CompressionUtil() {
+    }
+
     public static String compress(String data) throws IOException {
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        try (DeflaterOutputStream deflaterOutputStream = new DeflaterOutputStream(byteArrayOutputStream)) {
-            deflaterOutputStream.write(data.getBytes());
+        return encode(DEFLATE, out -> out.write(data.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Serializes the value as json straight into a deflate stream and base64 encodes the output, without
+     * materializing the json or the compressed bytes as intermediate copies. Produces the same format as
+     * {@link #compress(String)}.
+     *
+     * @param objectMapper the object mapper
+     * @param value        the value
+     * @return the base64 encoded deflated json
+     * @throws IOException the io exception
+     */
+    public static String compressJson(ObjectMapper objectMapper, Object value) throws IOException {
+        return compressJson(objectMapper, value, DEFLATE);
+    }
+
+    /**
+     * Serializes the value as json straight into the codec and base64 encodes the output.
+     *
+     * @param objectMapper the object mapper
+     * @param value        the value
+     * @param codec        the codec
+     * @return the base64 encoded compressed json
+     * @throws IOException the io exception
+     */
+    public static String compressJson(ObjectMapper objectMapper, Object value, EventCodec codec) throws IOException {
+        return encode(codec, out -> objectMapper.writeValue(out, value));
+    }
+
+    private static String encode(EventCodec codec, StreamWriter writer) throws IOException {
+        ByteArrayOutputStream pooled = BUFFERS.poll();
+        ByteArrayOutputStream buffer = pooled != null ? pooled : new ByteArrayOutputStream(INITIAL_BUFFER_BYTES);
+        try {
+            try (OutputStream base64 = Base64.getEncoder().wrap(buffer);
+                 OutputStream compressed = codec.encode(base64)) {
+                writer.write(compressed);
+            }
+            return buffer.toString(StandardCharsets.ISO_8859_1);
+        } finally {
+            if (buffer.size() <= MAX_RETAINED_BUFFER_BYTES) {
+                buffer.reset();
+                BUFFERS.offer(buffer);
+            }
         }
-        return Base64.getEncoder().encodeToString(byteArrayOutputStream.toByteArray());
+    }
+
+    @FunctionalInterface
+    private interface StreamWriter {
+        void write(OutputStream out) throws IOException;
     }
 }
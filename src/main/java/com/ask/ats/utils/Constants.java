@@ -29,4 +29,11 @@ public final class Constants {
     public static final String JOBS_USERS_DETAIL = "JobsUsersDetail";
     public static final String AGILE = "AgileOne";
 
+    public static final String JOB_BULLHORN_EVENTS = "bullhornEvents";
+    public static final String JOB_JOB_DIVA_AGENT_SEARCH = "jobDivaAgentSearch";
+    public static final String JOB_JOB_DIVA_APPLICANTS = "jobDivaApplicants";
+    public static final String JOB_JOB_DIVA_CANDIDATE_NOTES = "jobDivaCandidateNotes";
+    public static final String JOB_AGILE_ONE_JOBS = "agileOneJobs";
+    public static final String JOB_AGILE_ONE_ASSIGNMENTS = "agileOneAssignments";
+
 }
@@ -0,0 +1,24 @@
+-- Live ats-scheduler nodes, created once in the central curately database. Each node upserts its row every
+-- heartbeat, nodes whose heartbeat is older than the node ttl drop out of the tenant hash ring.
+CREATE TABLE dbo.ats_scheduler_nodes (
+    nodeId        VARCHAR(128)  NOT NULL PRIMARY KEY,
+    hostName      VARCHAR(128)  NOT NULL,
+    startedDate   DATETIME2     NOT NULL DEFAULT GETDATE(),
+    heartbeatDate DATETIME2     NOT NULL DEFAULT GETDATE()
+);
+
+CREATE INDEX IX_ats_scheduler_nodes_heartbeatDate ON dbo.ats_scheduler_nodes (heartbeatDate);
+
+-- Leases of the tenant runs in flight, one row per (job, tenant) while a node runs it. A node takes the lease
+-- before starting a run and deletes it once the run completes, so a tenant is never run by two nodes whose views
+-- of the ring differ. The holder renews its leases every heartbeat, the lease of a dead node expires with the node
+-- ttl.
+CREATE TABLE dbo.ats_scheduler_tenant_leases (
+    jobName    VARCHAR(64)   NOT NULL,
+    clientId   INT           NOT NULL,
+    nodeId     VARCHAR(128)  NOT NULL,
+    leaseUntil DATETIME2     NOT NULL,
+    CONSTRAINT PK_ats_scheduler_tenant_leases PRIMARY KEY (jobName, clientId)
+);
+
+CREATE INDEX IX_ats_scheduler_tenant_leases_nodeId ON dbo.ats_scheduler_tenant_leases (nodeId);
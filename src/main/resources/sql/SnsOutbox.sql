@@ -0,0 +1,16 @@
+-- Outbox of built sns events, created in every Curately_<clientId> database.
+CREATE TABLE dbo.SnsOutbox (
+    id                BIGINT IDENTITY(1,1) NOT NULL PRIMARY KEY,
+    topicArn          VARCHAR(256)   NOT NULL,
+    entryId           VARCHAR(80)    NOT NULL,
+    message           NVARCHAR(MAX)  NOT NULL,
+    messageAttributes NVARCHAR(MAX)  NULL,
+    status            TINYINT        NOT NULL DEFAULT 0,
+    attempts          INT            NOT NULL DEFAULT 0,
+    leaseOwner        VARCHAR(128)   NULL,
+    leaseUntil        DATETIME2      NULL,
+    createdDate       DATETIME2      NOT NULL DEFAULT GETDATE(),
+    updatedDate       DATETIME2      NULL
+);
+
+CREATE INDEX IX_SnsOutbox_status_leaseUntil ON dbo.SnsOutbox (status, leaseUntil) INCLUDE (topicArn);
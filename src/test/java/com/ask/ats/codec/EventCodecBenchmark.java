@@ -0,0 +1,117 @@
+package com.ask.ats.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compression ratio and throughput benchmark of the event codecs over sample sns event json, run by hand to pick the
+ * codec of a topic. Sizes are measured after base64, i.e. as billed by sns.
+ *
+ * <pre>
+ * java ... com.ask.ats.codec.EventCodecBenchmark &lt;samplesDir&gt; [dictionary.zdict] [zstdLevel] [iterations]
+ * </pre>
+ */
+public class EventCodecBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 3;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: EventCodecBenchmark <samplesDir> [dictionary.zdict] [zstdLevel] [iterations]");
+            System.exit(1);
+        }
+        List<byte[]> samples = EventSamples.load(Path.of(args[0]));
+        byte[] dictionary = args.length > 1 && !args[1].isBlank() ? Files.readAllBytes(Path.of(args[1])) : null;
+        int zstdLevel = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        int iterations = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        Map<String, EventCodec> codecs = new LinkedHashMap<>();
+        codecs.put("deflate", new DeflateCodec());
+        codecs.put("gzip", new GzipCodec());
+        codecs.put("zstd-" + zstdLevel, new ZstdCodec(zstdLevel));
+        if (dictionary != null) {
+            codecs.put("zstd-dict-" + zstdLevel, new ZstdCodec(zstdLevel, "benchmark", dictionary));
+        }
+
+        long rawBytes = samples.stream().mapToLong(sample -> sample.length).sum();
+        System.out.printf("%d samples, %d raw bytes, %d iterations%n", samples.size(), rawBytes, iterations);
+        System.out.printf("%-16s %14s %8s %14s %14s%n", "codec", "sns bytes", "ratio", "encode MB/s", "decode MB/s");
+        for (Map.Entry<String, EventCodec> entry : codecs.entrySet()) {
+            run(entry.getKey(), entry.getValue(), samples, rawBytes, iterations);
+        }
+    }
+
+    private static void run(String name, EventCodec codec, List<byte[]> samples, long rawBytes, int iterations)
+            throws IOException {
+        List<byte[]> encoded = new ArrayList<>(samples.size());
+        for (byte[] sample : samples) {
+            encoded.add(encode(codec, sample));
+        }
+        for (int i = 0; i < samples.size(); i++) {
+            if (!Arrays.equals(samples.get(i), decode(codec, encoded.get(i)))) {
+                throw new IllegalStateException(name + " failed to round trip sample " + i);
+            }
+        }
+        long encodedBytes = encoded.stream().mapToLong(bytes -> bytes.length).sum();
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            encodeAll(codec, samples);
+            decodeAll(codec, encoded);
+        }
+        long encodeNanos = 0;
+        long decodeNanos = 0;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            encodeAll(codec, samples);
+            encodeNanos += System.nanoTime() - start;
+            start = System.nanoTime();
+            decodeAll(codec, encoded);
+            decodeNanos += System.nanoTime() - start;
+        }
+
+        System.out.printf("%-16s %14d %8.2f %14.1f %14.1f%n", name, encodedBytes, (double) rawBytes / encodedBytes,
+                megabytesPerSecond(rawBytes * iterations, encodeNanos),
+                megabytesPerSecond(rawBytes * iterations, decodeNanos));
+    }
+
+    private static void encodeAll(EventCodec codec, List<byte[]> samples) throws IOException {
+        for (byte[] sample : samples) {
+            encode(codec, sample);
+        }
+    }
+
+    private static void decodeAll(EventCodec codec, List<byte[]> encoded) throws IOException {
+        for (byte[] bytes : encoded) {
+            decode(codec, bytes);
+        }
+    }
+
+    private static byte[] encode(EventCodec codec, byte[] sample) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(sample.length / 2);
+        try (OutputStream out = codec.encode(Base64.getEncoder().wrap(buffer))) {
+            out.write(sample);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] decode(EventCodec codec, byte[] encoded) throws IOException {
+        try (InputStream in = codec.decode(Base64.getDecoder().wrap(new ByteArrayInputStream(encoded)))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static double megabytesPerSecond(long bytes, long nanos) {
+        return nanos == 0 ? 0 : bytes / (1024.0 * 1024.0) / (nanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,41 @@
+package com.ask.ats.codec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Loads sample sns event json for the codec tools: every line of {@code .jsonl} files and every {@code .json} file
+ * under the directory.
+ */
+final class EventSamples {
+
+    private EventSamples() {
+    }
+
+    static List<byte[]> load(Path directory) throws IOException {
+        List<byte[]> samples = new ArrayList<>();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.filter(Files::isRegularFile).sorted().toList()) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".jsonl")) {
+                    for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                        if (!line.isBlank()) {
+                            samples.add(line.getBytes(StandardCharsets.UTF_8));
+                        }
+                    }
+                } else if (name.endsWith(".json")) {
+                    samples.add(Files.readAllBytes(file));
+                }
+            }
+        }
+        if (samples.isEmpty()) {
+            throw new IllegalArgumentException("No .json or .jsonl samples found under " + directory);
+        }
+        return samples;
+    }
+}
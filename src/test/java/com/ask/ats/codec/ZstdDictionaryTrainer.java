@@ -0,0 +1,52 @@
+package com.ask.ats.codec;
+
+import com.github.luben.zstd.ZstdDictTrainer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Offline trainer of the zstd dictionary used by the {@code zstd-dict} codec. Samples are uncompressed sns event
+ * json, typically captured {@code Job} and {@code Candidate} events, one event per line in {@code .jsonl} files or one
+ * event per {@code .json} file.
+ *
+ * <pre>
+ * java ... com.ask.ats.codec.ZstdDictionaryTrainer &lt;samplesDir&gt; &lt;output.zdict&gt; [dictionaryBytes]
+ * </pre>
+ *
+ * The output is referenced by {@code aws.sns.codec.dictionary.location}; a retrained dictionary must be published
+ * under a new {@code aws.sns.codec.dictionary.name} so consumers can keep decoding in-flight events.
+ */
+public class ZstdDictionaryTrainer {
+
+    private static final int DEFAULT_DICTIONARY_BYTES = 112 * 1024;
+    private static final int MAX_SAMPLE_BUFFER_BYTES = 256 * 1024 * 1024;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ZstdDictionaryTrainer <samplesDir> <output.zdict> [dictionaryBytes]");
+            System.exit(1);
+        }
+        Path output = Path.of(args[1]);
+        int dictionaryBytes = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_DICTIONARY_BYTES;
+
+        List<byte[]> samples = EventSamples.load(Path.of(args[0]));
+        long totalBytes = samples.stream().mapToLong(sample -> sample.length).sum();
+        ZstdDictTrainer trainer = new ZstdDictTrainer((int) Math.min(totalBytes, MAX_SAMPLE_BUFFER_BYTES),
+                dictionaryBytes);
+        int added = 0;
+        for (byte[] sample : samples) {
+            if (!trainer.addSample(sample)) {
+                break;
+            }
+            added++;
+        }
+
+        byte[] dictionary = trainer.trainSamples();
+        Files.write(output, dictionary);
+        System.out.printf("Trained %d bytes dictionary from %d of %d samples (%d bytes) into %s%n",
+                dictionary.length, added, samples.size(), totalBytes, output);
+    }
+}
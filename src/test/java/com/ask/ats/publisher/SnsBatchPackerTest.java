@@ -0,0 +1,109 @@
+package com.ask.ats.publisher;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sns batch packer tests, against the 256 KB sns request limit.
+ */
+class SnsBatchPackerTest {
+
+    private static final int MAX_BATCH_BYTES = 262144;
+
+    private final SnsBatchPacker packer = new SnsBatchPacker();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(packer, "maxBatchBytes", MAX_BATCH_BYTES);
+    }
+
+    @Test
+    void packsAtMostTenEntriesPerBatch() {
+        List<PublishBatchRequestEntry> entries = IntStream.range(0, 25)
+                .mapToObj(i -> entry("e" + i, 100))
+                .toList();
+
+        List<List<PublishBatchRequestEntry>> batches = packer.pack(entries);
+
+        assertEquals(List.of(10, 10, 5), batches.stream().map(List::size).toList());
+    }
+
+    @Test
+    void keepsEveryBatchWithinTheSizeLimit() {
+        List<PublishBatchRequestEntry> entries = IntStream.range(0, 5)
+                .mapToObj(i -> entry("e" + i, 100_000))
+                .toList();
+
+        List<List<PublishBatchRequestEntry>> batches = packer.pack(entries);
+
+        assertEquals(3, batches.size());
+        batches.forEach(batch -> assertTrue(bytes(batch) <= MAX_BATCH_BYTES));
+    }
+
+    @Test
+    void packsFirstFitDecreasing() {
+        List<PublishBatchRequestEntry> entries = List.of(entry("e50", 50_000), entry("e110", 110_000),
+                entry("e200", 200_000), entry("e60", 60_000), entry("e150", 150_000));
+
+        List<List<PublishBatchRequestEntry>> batches = packer.pack(entries);
+
+        assertEquals(List.of(List.of("e200", "e60"), List.of("e150", "e110"), List.of("e50")),
+                batches.stream().map(batch -> batch.stream().map(PublishBatchRequestEntry::id).toList()).toList());
+    }
+
+    @Test
+    void publishesAnOversizedEntryOnItsOwn() {
+        PublishBatchRequestEntry oversized = entry("big", MAX_BATCH_BYTES + 1);
+        List<PublishBatchRequestEntry> entries = List.of(entry("small1", 10), oversized, entry("small2", 10));
+
+        List<List<PublishBatchRequestEntry>> batches = packer.pack(entries);
+
+        assertEquals(2, batches.size());
+        assertEquals(List.of(oversized), batches.get(0));
+        assertEquals(2, batches.get(1).size());
+        assertFalse(packer.fitsInBatch(oversized));
+        assertTrue(packer.fitsInBatch(entry("limit", MAX_BATCH_BYTES)));
+    }
+
+    @Test
+    void countsMessageAttributesAndMultiByteCharacters() {
+        PublishBatchRequestEntry entry = PublishBatchRequestEntry.builder()
+                .id("e")
+                .message("é€😀")
+                .messageAttributes(Map.of("encoding", MessageAttributeValue.builder()
+                        .dataType("String")
+                        .stringValue("zstd")
+                        .build()))
+                .build();
+
+        assertEquals(2 + 3 + 4 + "encoding".length() + "String".length() + "zstd".length(), packer.entrySize(entry));
+    }
+
+    @Test
+    void packsNothingFromNoEntries() {
+        assertTrue(packer.pack(List.of()).isEmpty());
+        assertTrue(packer.pack(null).isEmpty());
+    }
+
+    private static PublishBatchRequestEntry entry(String id, int bytes) {
+        return PublishBatchRequestEntry.builder()
+                .id(id)
+                .message("a".repeat(bytes))
+                .build();
+    }
+
+    private int bytes(List<PublishBatchRequestEntry> batch) {
+        return batch.stream().mapToInt(packer::entrySize).sum();
+    }
+}
@@ -0,0 +1,176 @@
+package com.ask.ats.service;
+
+import com.ask.ats.service.AdmissionController.Priority;
+import com.ask.ats.service.DownstreamLimiter.Downstream;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Admission controller tests. Tasks run on a manual executor one at a time, with a single ats api token, so the
+ * order in which they start is the order the controller admits them in.
+ */
+class AdmissionControllerTest {
+
+    private static final Set<Downstream> ATS_API = Set.of(Downstream.ATS_API);
+
+    private final ManualExecutor executor = new ManualExecutor();
+    private final List<String> started = Collections.synchronizedList(new ArrayList<>());
+
+    @Test
+    void servesFlowsInProportionToTheirWeight() {
+        AdmissionController controller = controller(100, Map.of("heavy", 2.0, "light", 1.0));
+        CompletableFuture<Void> heavy = controller.supplyAllAsync(1, "heavy", Priority.NORMAL, ATS_API,
+                items("heavy", 6), this::start, result -> {
+                });
+        CompletableFuture<Void> light = controller.supplyAllAsync(1, "light", Priority.NORMAL, ATS_API,
+                items("light", 6), this::start, result -> {
+                });
+
+        executor.runAll();
+
+        assertEquals(List.of("heavy-0", "heavy-1", "light-0", "heavy-2", "heavy-3", "light-1", "heavy-4",
+                "heavy-5", "light-2"), started.subList(0, 9));
+        assertTrue(heavy.isDone() && !heavy.isCompletedExceptionally());
+        assertTrue(light.isDone() && !light.isCompletedExceptionally());
+    }
+
+    @Test
+    void givesTenantsAnEqualShareWhateverTheirBacklog() {
+        AdmissionController controller = controller(100, Map.of());
+        controller.supplyAllAsync(1, "job", Priority.NORMAL, ATS_API, items("busy", 50), this::start, result -> {
+        });
+        controller.supplyAllAsync(2, "job", Priority.NORMAL, ATS_API, items("quiet", 2), this::start, result -> {
+        });
+
+        executor.runAll();
+
+        assertEquals(List.of("busy-0", "busy-1", "quiet-0", "busy-2", "quiet-1", "busy-3"), started.subList(0, 6));
+        assertEquals(52, started.size());
+    }
+
+    @Test
+    void lowPriorityWorkWaitsForASlotInsteadOfBeingShed() {
+        AdmissionController controller = controller(1, Map.of());
+        CompletableFuture<Void> low = controller.supplyAllAsync(1, "agentSearch", Priority.LOW, ATS_API,
+                items("low", 3), this::start, result -> {
+                });
+        CompletableFuture<Void> high = controller.supplyAllAsync(1, "applicants", Priority.HIGH, ATS_API,
+                items("high", 1), this::start, result -> {
+                });
+
+        executor.runAll();
+
+        // the freed slot goes to the waiting high priority submission before the rest of the low one
+        assertEquals(List.of("low-0", "low-1", "high-0", "low-2"), started);
+        assertTrue(low.isDone() && !low.isCompletedExceptionally());
+        assertTrue(high.isDone() && !high.isCompletedExceptionally());
+    }
+
+    @Test
+    void pullsItemsOnlyWhileTheTenantQueueHasRoom() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AdmissionController controller = controller(2, Map.of(), meterRegistry);
+        controller.supplyAllAsync(1, "job", Priority.NORMAL, ATS_API, items("job", 10), this::start, result -> {
+        });
+
+        assertEquals(2, meterRegistry.get("ats.admission.queue.depth").tag("priority", "normal").gauge().value());
+        assertEquals(1, meterRegistry.get("ats.admission.waiting").gauge().value());
+        executor.runAll();
+        assertEquals(10, started.size());
+        assertEquals(0, meterRegistry.get("ats.admission.queue.depth").tag("priority", "normal").gauge().value());
+        assertEquals(0, meterRegistry.get("ats.admission.waiting").gauge().value());
+    }
+
+    @Test
+    void failsTheSubmissionOnceEveryTaskHasRun() {
+        AdmissionController controller = controller(100, Map.of());
+        List<String> results = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<Void> done = controller.supplyAllAsync(1, "job", Priority.NORMAL, ATS_API,
+                items("job", 3), item -> {
+                    if (item.equals("job-1")) {
+                        throw new IllegalStateException("boom");
+                    }
+                    return start(item);
+                }, results::add);
+
+        executor.runAll();
+
+        assertTrue(done.isCompletedExceptionally());
+        assertEquals(List.of("job-0", "job-2"), results);
+    }
+
+    @Test
+    void completesAnEmptySubmissionRightAway() {
+        AdmissionController controller = controller(100, Map.of());
+        CompletableFuture<Void> done = controller.supplyAllAsync(1, "job", Priority.NORMAL, ATS_API, List.of(),
+                this::start, result -> {
+                });
+
+        assertTrue(done.isDone() && !done.isCompletedExceptionally());
+        assertFalse(executor.hasPending());
+    }
+
+    private AdmissionController controller(int tenantQueueCapacity, Map<String, Double> weights) {
+        return controller(tenantQueueCapacity, weights, new SimpleMeterRegistry());
+    }
+
+    private AdmissionController controller(int tenantQueueCapacity, Map<String, Double> weights,
+                                           SimpleMeterRegistry meterRegistry) {
+        AdmissionController controller = new AdmissionController(tenantQueueCapacity, 1, 1, weights, executor,
+                meterRegistry);
+        ReflectionTestUtils.setField(controller, "starvationThresholdSeconds", 60L);
+        return controller;
+    }
+
+    private String start(String item) {
+        started.add(item);
+        return item;
+    }
+
+    private static List<String> items(String prefix, int count) {
+        return IntStream.range(0, count).mapToObj(i -> prefix + "-" + i).toList();
+    }
+
+    /**
+     * Executor queuing the tasks until the test runs them, one at a time in submission order.
+     */
+    private static final class ManualExecutor implements Executor {
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        private synchronized Runnable next() {
+            return tasks.poll();
+        }
+
+        private synchronized boolean hasPending() {
+            return !tasks.isEmpty();
+        }
+
+        private void runAll() {
+            Runnable task;
+            while ((task = next()) != null) {
+                task.run();
+            }
+        }
+    }
+}